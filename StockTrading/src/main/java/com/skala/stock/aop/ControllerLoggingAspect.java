@@ -1,8 +1,10 @@
 package com.skala.stock.aop;
 
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -11,16 +13,20 @@ import org.springframework.web.context.request.*;
 
 @Aspect
 @Component
+@RequiredArgsConstructor
 public class ControllerLoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger(ControllerLoggingAspect.class);
 
-    @Pointcut("execution(* com.skala.stock.controller..*(..))")
+    private final EndpointLatencyRecorder endpointLatencyRecorder;
+
+    // 지연시간 조회 API 자체는 집계/로그에서 뺀다
+    @Pointcut("execution(* com.skala.stock.controller..*(..)) && !within(com.skala.stock.controller.LatencyController)")
     public void controllerLayer() {}
 
     @Around("controllerLayer()")
     public Object logController(ProceedingJoinPoint pjp) throws Throwable {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         HttpServletRequest req = currentRequest();
         String uri = (req == null) ? "N/A" : req.getRequestURI();
@@ -30,18 +36,22 @@ public class ControllerLoggingAspect {
 
         try {
             Object result = pjp.proceed();
-            long elapsed = System.currentTimeMillis() - start;
+            long elapsedNanos = System.nanoTime() - start;
 
             int status = 200;
             if (result instanceof ResponseEntity<?> re) {
                 status = re.getStatusCode().value();
             }
+            endpointLatencyRecorder.record(((MethodSignature) pjp.getSignature()).getMethod(), status, elapsedNanos);
 
-            log.info("[API-END] {} {} status={} elapsedMs={}", httpMethod, uri, status, elapsed);
+            log.info("[API-END] {} {} status={} elapsedMs={}", httpMethod, uri, status, elapsedNanos / 1_000_000);
             return result;
         } catch (Throwable t) {
-            long elapsed = System.currentTimeMillis() - start;
-            log.error("[API-EXCEPTION] {} {} elapsedMs={} message={}", httpMethod, uri, elapsed, t.getMessage(), t);
+            long elapsedNanos = System.nanoTime() - start;
+            // 예외 처리기가 없으므로 컨트롤러 밖으로 나간 예외는 500으로 응답된다
+            endpointLatencyRecorder.record(((MethodSignature) pjp.getSignature()).getMethod(), 500, elapsedNanos);
+
+            log.error("[API-EXCEPTION] {} {} elapsedMs={} message={}", httpMethod, uri, elapsedNanos / 1_000_000, t.getMessage(), t);
             throw t;
         }
     }
@@ -0,0 +1,93 @@
+package com.skala.stock.aop;
+
+import com.skala.stock.dto.EndpointLatencyDto;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 컨트롤러 핸들러 x 응답 상태 클래스(1xx~5xx)별 지연시간(ns) 히스토그램
+ *
+ * 요청 스레드는 HdrHistogram Recorder에 기록만 한다 (락 없음, wait-free).
+ * 조회 시 Recorder의 구간 히스토그램을 떼어 누적 히스토그램에 더하고, reset 요청이면 누적을 비운다.
+ */
+@Component
+public class EndpointLatencyRecorder {
+
+    // 유효 숫자 2자리(오차 1% 이내), 범위는 값에 맞춰 자동으로 늘어난다
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final ConcurrentHashMap<Method, HandlerLatency> handlers = new ConcurrentHashMap<>();
+
+    public void record(Method method, int status, long elapsedNanos) {
+        int statusClass = status / 100;
+        if (statusClass < 1 || statusClass > 5) return;
+
+        handlers.computeIfAbsent(method, m -> new HandlerLatency(m.getDeclaringClass().getSimpleName() + "." + m.getName() + "(..)"))
+                .byStatusClass[statusClass].recorder.recordValue(Math.max(0L, elapsedNanos));
+    }
+
+    public List<EndpointLatencyDto> snapshot(boolean reset) {
+        List<EndpointLatencyDto> result = new ArrayList<>();
+        for (HandlerLatency handler : handlers.values()) {
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                EndpointLatencyDto dto = handler.byStatusClass[statusClass].drain(handler.name, statusClass, reset);
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(EndpointLatencyDto::getHandler).thenComparing(EndpointLatencyDto::getStatusClass));
+        return result;
+    }
+
+    private static final class HandlerLatency {
+        private final String name;
+        private final LatencyTracker[] byStatusClass = new LatencyTracker[6]; // 인덱스 = 상태 코드 / 100
+
+        private HandlerLatency(String name) {
+            this.name = name;
+            for (int i = 1; i <= 5; i++) {
+                byStatusClass[i] = new LatencyTracker();
+            }
+        }
+    }
+
+    private static final class LatencyTracker {
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram accumulated = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram interval; // 다음 구간 교체 때 재사용
+        private LocalDateTime since = LocalDateTime.now();
+
+        private synchronized EndpointLatencyDto drain(String handler, int statusClass, boolean reset) {
+            interval = recorder.getIntervalHistogram(interval);
+            accumulated.add(interval);
+
+            EndpointLatencyDto dto = accumulated.getTotalCount() == 0 ? null : EndpointLatencyDto.builder()
+                    .handler(handler)
+                    .statusClass(statusClass + "xx")
+                    .count(accumulated.getTotalCount())
+                    .meanMicros(accumulated.getMean() / NANOS_PER_MICRO)
+                    .p50Micros(accumulated.getValueAtPercentile(50.0) / NANOS_PER_MICRO)
+                    .p99Micros(accumulated.getValueAtPercentile(99.0) / NANOS_PER_MICRO)
+                    .p999Micros(accumulated.getValueAtPercentile(99.9) / NANOS_PER_MICRO)
+                    .maxMicros(accumulated.getMaxValue() / NANOS_PER_MICRO)
+                    .since(since)
+                    .build();
+
+            if (reset) {
+                accumulated.reset();
+                since = LocalDateTime.now();
+            }
+            return dto;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package com.skala.stock.aop;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 @Aspect
 @Component
@@ -15,50 +19,106 @@ public class LoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
 
+    // 마스킹 규칙은 한 번만 컴파일한다: password= / "password":
+    private static final Pattern PASSWORD_FIELD = Pattern.compile("(?i)password\\s*=\\s*[^,}\\]]+");
+    private static final Pattern PASSWORD_JSON = Pattern.compile("(?i)\"password\"\\s*:\\s*\".*?\"");
+
+    // 메서드별 이름/호출 카운터 (toShortString()을 매 호출마다 만들지 않는다)
+    private final ConcurrentHashMap<Method, MethodLogState> states = new ConcurrentHashMap<>();
+
+    // N번 중 1번만 START/END를 남긴다 (1이면 전부). 예외는 샘플링과 무관하게 항상 남긴다
+    private final long sampleRate;
+
+    public LoggingAspect(@Value("${stock.logging.service.sample-rate:1}") long sampleRate) {
+        this.sampleRate = Math.max(1L, sampleRate);
+    }
+
     // Service 계층 전체
     @Pointcut("execution(* com.skala.stock.service..*(..))")
     public void serviceLayer() {}
 
     @Around("serviceLayer()")
     public Object logService(ProceedingJoinPoint pjp) throws Throwable {
-        long start = System.currentTimeMillis();
-
-        String method = pjp.getSignature().toShortString();
-        String args = maskSensitive(pjp.getArgs());
+        MethodLogState state = states.computeIfAbsent(((MethodSignature) pjp.getSignature()).getMethod(),
+                m -> new MethodLogState(pjp.getSignature().toShortString()));
+        boolean sampled = log.isInfoEnabled() && state.sample(sampleRate);
 
-        log.info("[SERVICE-START] method={} args={}", method, args);
+        long start = System.nanoTime();
+        if (sampled) {
+            // 인자 문자열은 실제로 찍힐 때 toString()에서 만든다
+            log.info("[SERVICE-START] method={} args={}", state.name, new MaskedArgs(pjp.getArgs()));
+        }
 
         try {
             Object result = pjp.proceed();
-            long elapsed = System.currentTimeMillis() - start;
-
-            // 결과는 너무 길어질 수 있어 간단히 클래스명/요약만 찍는 게 안전
-            String resultSummary = (result == null) ? "null" : result.getClass().getSimpleName();
-            log.info("[SERVICE-END] method={} elapsedMs={} result={}", method, elapsed, resultSummary);
 
+            if (sampled) {
+                // 결과는 너무 길어질 수 있어 간단히 클래스명/요약만 찍는 게 안전
+                String resultSummary = (result == null) ? "null" : result.getClass().getSimpleName();
+                log.info("[SERVICE-END] method={} elapsedMs={} result={}", state.name, elapsedMillis(start), resultSummary);
+            }
             return result;
         } catch (Throwable t) {
-            long elapsed = System.currentTimeMillis() - start;
-            log.error("[SERVICE-EXCEPTION] method={} elapsedMs={} message={}", method, elapsed, t.getMessage(), t);
+            log.error("[SERVICE-EXCEPTION] method={} elapsedMs={} message={}", state.name, elapsedMillis(start), t.getMessage(), t);
             throw t;
         }
     }
 
-    private String maskSensitive(Object[] args) {
-        if (args == null || args.length == 0) return "[]";
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static final class MethodLogState {
+        private final String name;
+        private final AtomicLong calls = new AtomicLong();
+
+        private MethodLogState(String name) {
+            this.name = name;
+        }
 
-        return Arrays.stream(args)
-                .map(this::safeToString)
-                .collect(Collectors.joining(", ", "[", "]"));
+        private boolean sample(long rate) {
+            return rate == 1L || calls.getAndIncrement() % rate == 0;
+        }
     }
 
-    private String safeToString(Object arg) {
-        if (arg == null) return "null";
-        String s = arg.toString();
+    /**
+     * 로그 메시지가 실제로 만들어질 때만 인자를 문자열로 바꾸고 마스킹한다.
+     */
+    private static final class MaskedArgs {
+        private final Object[] args;
+
+        private MaskedArgs(Object[] args) {
+            this.args = args;
+        }
+
+        @Override
+        public String toString() {
+            if (args == null || args.length == 0) return "[]";
 
-        // 아주 단순 마스킹: password= / "password":
-        s = s.replaceAll("(?i)password\\s*=\\s*[^,}\\]]+", "password=***");
-        s = s.replaceAll("(?i)\"password\"\\s*:\\s*\".*?\"", "\"password\":\"***\"");
-        return s;
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(safeToString(args[i]));
+            }
+            return sb.append(']').toString();
+        }
+
+        private static String safeToString(Object arg) {
+            if (arg == null) return "null";
+            String s = arg.toString();
+
+            // 대부분의 인자(id, 수량 등)에는 password가 없으므로 정규식까지 가지 않는다
+            if (!containsIgnoreCase(s, "password")) return s;
+            s = PASSWORD_FIELD.matcher(s).replaceAll("password=***");
+            s = PASSWORD_JSON.matcher(s).replaceAll("\"password\":\"***\"");
+            return s;
+        }
+
+        private static boolean containsIgnoreCase(String s, String word) {
+            for (int i = 0, last = s.length() - word.length(); i <= last; i++) {
+                if (s.regionMatches(true, i, word, 0, word.length())) return true;
+            }
+            return false;
+        }
     }
 }
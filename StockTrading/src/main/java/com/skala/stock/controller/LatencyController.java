@@ -0,0 +1,27 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.aop.EndpointLatencyRecorder;
+import com.skala.stock.dto.EndpointLatencyDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/latency")
+@RequiredArgsConstructor
+@Tag(name = "지연시간 모니터링", description = "컨트롤러 엔드포인트별 응답 지연시간 분포 조회 API")
+public class LatencyController {
+
+    private final EndpointLatencyRecorder endpointLatencyRecorder;
+
+    @GetMapping
+    @Operation(summary = "엔드포인트 지연시간 조회",
+            description = "핸들러/상태 클래스별 p50, p99, p99.9 (마이크로초)를 조회합니다. reset=true면 조회 후 집계를 초기화합니다")
+    public ResponseEntity<List<EndpointLatencyDto>> getLatency(@RequestParam(defaultValue = "false") boolean reset) {
+        return ResponseEntity.ok(endpointLatencyRecorder.snapshot(reset));
+    }
+}
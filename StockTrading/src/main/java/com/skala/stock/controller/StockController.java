@@ -1,5 +1,6 @@
 package com.skala.stock.controller;
 
+import com.skala.stock.dto.BulkDeleteResultDto;
 import com.skala.stock.dto.StockDto;
 import com.skala.stock.service.StockService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -64,4 +65,11 @@ public class StockController {
         stockService.deleteStock(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "주식 일괄 삭제", description = "여러 주식을 한 번에 삭제합니다. 거래/포트폴리오에서 참조 중인 id는 삭제하지 않고 blockedIds로 돌려줍니다")
+    public ResponseEntity<BulkDeleteResultDto> deleteStocks(@RequestBody List<Long> ids) {
+        BulkDeleteResultDto result = stockService.deleteStocks(ids);
+        return ResponseEntity.ok(result);
+    }
 }
@@ -1,5 +1,6 @@
 package com.skala.stock.controller;
 
+import com.skala.stock.dto.BulkDeleteResultDto;
 import com.skala.stock.dto.UserDto;
 import com.skala.stock.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -56,4 +57,11 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "사용자 일괄 삭제", description = "여러 사용자를 한 번에 삭제합니다. 거래/포트폴리오에서 참조 중인 id는 삭제하지 않고 blockedIds로 돌려줍니다")
+    public ResponseEntity<BulkDeleteResultDto> deleteUsers(@RequestBody List<Long> ids) {
+        BulkDeleteResultDto result = userService.deleteUsers(ids);
+        return ResponseEntity.ok(result);
+    }
 }
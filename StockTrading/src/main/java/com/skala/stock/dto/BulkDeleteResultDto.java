@@ -0,0 +1,22 @@
+package com.skala.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkDeleteResultDto {
+
+    private Integer requested; // 중복/null을 뺀 요청 id 수
+    private List<Long> deletedIds;
+    private List<Long> blockedIds; // 거래/포트폴리오에서 참조 중이라 삭제하지 않은 id
+    private List<Long> notFoundIds;
+}
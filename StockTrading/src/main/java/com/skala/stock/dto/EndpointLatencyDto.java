@@ -0,0 +1,27 @@
+package com.skala.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointLatencyDto {
+
+    private String handler; // 예: StockController.getStock(..)
+    private String statusClass; // 2xx, 4xx, 5xx ...
+    private Long count;
+    private Double meanMicros;
+    private Double p50Micros;
+    private Double p99Micros;
+    private Double p999Micros;
+    private Double maxMicros;
+    private LocalDateTime since; // 집계 시작 시각 (마지막 초기화 시점)
+}
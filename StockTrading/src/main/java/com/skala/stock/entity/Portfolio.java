@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
  * 사용자와 주식 간의 다대다 관계를 나타냅니다.
  */
 @Entity
-@Table(name = "portfolios")
+@Table(name = "portfolios",
+        uniqueConstraints = @UniqueConstraint(name = "uk_portfolios_user_stock", columnNames = {"user_id", "stock_id"})) // 사용자-종목당 한 행 (MERGE 기준 키)
 @Getter
 @Setter
 @NoArgsConstructor
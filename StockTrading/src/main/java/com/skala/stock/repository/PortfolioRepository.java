@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.skala.stock.entity.Portfolio;
@@ -17,4 +20,38 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     // delete 방어용
     boolean existsByUserId(Long userId);
     boolean existsByStockId(Long stockId);
+
+    // 매수: 보유분이 있으면 수량을 더하고 평균 단가를 가중 평균으로 다시 계산, 없으면 새로 넣는다 (MERGE 한 번)
+    // SET 절의 p.* 는 갱신 전 값이고, 반올림은 기존 Math.round((double) totalCost / totalQuantity)와 같다
+    @Modifying
+    @Query(value = """
+            MERGE INTO portfolios p
+            USING (SELECT CAST(:userId AS BIGINT) AS user_id, CAST(:stockId AS BIGINT) AS stock_id,
+                          CAST(:quantity AS BIGINT) AS quantity, CAST(:price AS BIGINT) AS price) s
+            ON p.user_id = s.user_id AND p.stock_id = s.stock_id
+            WHEN MATCHED THEN UPDATE SET
+                average_price = CAST(ROUND(CAST(p.average_price * p.quantity + s.price * s.quantity AS DOUBLE PRECISION)
+                                           / (p.quantity + s.quantity)) AS BIGINT),
+                quantity = p.quantity + s.quantity,
+                updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (user_id, stock_id, quantity, average_price, created_at, updated_at)
+                VALUES (s.user_id, s.stock_id, s.quantity, s.price, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """, nativeQuery = true)
+    int mergeBuy(@Param("userId") Long userId, @Param("stockId") Long stockId,
+                 @Param("quantity") Long quantity, @Param("price") Long price);
+
+    // 매도: 보유 수량이 충분할 때만 차감하고, 전량 매도면 행을 지운다 (MERGE 한 번)
+    // 보유분이 없거나 모자라면 0행이 반영된다
+    @Modifying
+    @Query(value = """
+            MERGE INTO portfolios p
+            USING (SELECT CAST(:userId AS BIGINT) AS user_id, CAST(:stockId AS BIGINT) AS stock_id,
+                          CAST(:quantity AS BIGINT) AS quantity) s
+            ON p.user_id = s.user_id AND p.stock_id = s.stock_id AND p.quantity >= s.quantity
+            WHEN MATCHED AND p.quantity = s.quantity THEN DELETE
+            WHEN MATCHED THEN UPDATE SET
+                quantity = p.quantity - s.quantity,
+                updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int mergeSell(@Param("userId") Long userId, @Param("stockId") Long stockId, @Param("quantity") Long quantity);
 }
@@ -1,8 +1,13 @@
 package com.skala.stock.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.skala.stock.entity.Stock;
@@ -14,4 +19,21 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     // update 시 "자기 자신(id)은 제외"하고 code 중복 체크
     boolean existsByCodeAndIdNot(String code, Long id);
+
+    // 일괄 삭제용: 여러 id를 한 번에 확인한다
+    @Query("SELECT s.id FROM Stock s WHERE s.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 거래/포트폴리오 어디에서도 참조되지 않는 id만 (anti-join)
+    @Query("SELECT s.id FROM Stock s WHERE s.id IN :ids "
+            + "AND NOT EXISTS (SELECT 1 FROM Transaction t WHERE t.stock.id = s.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM Portfolio p WHERE p.stock.id = s.id)")
+    List<Long> findUnreferencedIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 확인과 삭제 사이에 참조가 생긴 행은 건너뛰도록 같은 조건을 다시 건다
+    @Modifying
+    @Query("DELETE FROM Stock s WHERE s.id IN :ids "
+            + "AND NOT EXISTS (SELECT 1 FROM Transaction t WHERE t.stock.id = s.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM Portfolio p WHERE p.stock.id = s.id)")
+    int deleteUnreferencedByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,8 +1,13 @@
 package com.skala.stock.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.skala.stock.entity.User;
@@ -17,4 +22,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // update 시 "자기 자신(id)은 제외"하고 중복 체크
     boolean existsByUsernameAndIdNot(String username, Long id);
     boolean existsByEmailAndIdNot(String email, Long id);
+
+    // 거래용 잔액 변경: 조회 없이 UPDATE 한 번으로 처리한다
+    // 잔액이 모자라면 조건에 걸려 0행이 반영된다 (읽고-고치고-쓰는 사이의 경쟁도 없다)
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance - :amount, u.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE u.id = :id AND u.balance >= :amount")
+    int withdrawIfSufficient(@Param("id") Long id, @Param("amount") Long amount);
+
+    @Modifying
+    @Query("UPDATE User u SET u.balance = u.balance + :amount, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int deposit(@Param("id") Long id, @Param("amount") Long amount);
+
+    // 일괄 삭제용: 여러 id를 한 번에 확인한다
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 거래/포트폴리오 어디에서도 참조되지 않는 id만 (anti-join)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids "
+            + "AND NOT EXISTS (SELECT 1 FROM Transaction t WHERE t.user.id = u.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM Portfolio p WHERE p.user.id = u.id)")
+    List<Long> findUnreferencedIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 확인과 삭제 사이에 참조가 생긴 행은 건너뛰도록 같은 조건을 다시 건다
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids "
+            + "AND NOT EXISTS (SELECT 1 FROM Transaction t WHERE t.user.id = u.id) "
+            + "AND NOT EXISTS (SELECT 1 FROM Portfolio p WHERE p.user.id = u.id)")
+    int deleteUnreferencedByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,66 @@
+package com.skala.stock.service;
+
+import com.skala.stock.dto.BulkDeleteResultDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 사용자/주식 일괄 삭제의 공통 흐름이다.
+ * 청크마다 존재/참조 여부를 쿼리 두 번으로 확인하고 DELETE 한 번으로 지운다.
+ * 참조 중인 id는 건너뛰고 결과에 담는다 (전체를 실패시키지 않는다).
+ */
+final class BulkDeleter {
+
+    private static final int CHUNK_SIZE = 500; // IN 목록 크기 상한
+
+    private BulkDeleter() {
+    }
+
+    static BulkDeleteResultDto deleteUnreferenced(Collection<Long> ids,
+                                                  Function<Collection<Long>, List<Long>> findIds,
+                                                  Function<Collection<Long>, List<Long>> findUnreferencedIds,
+                                                  ToIntFunction<Collection<Long>> deleteUnreferenced) {
+        List<Long> requested = ids == null ? List.of()
+                : ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+
+        List<Long> deleted = new ArrayList<>();
+        List<Long> blocked = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+
+        for (int from = 0; from < requested.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = requested.subList(from, Math.min(from + CHUNK_SIZE, requested.size()));
+
+            Set<Long> existing = new HashSet<>(findIds.apply(chunk));
+            Set<Long> deletable = new HashSet<>(findUnreferencedIds.apply(chunk));
+            if (!deletable.isEmpty() && deleteUnreferenced.applyAsInt(deletable) != deletable.size()) {
+                // 확인 직후 참조가 생긴 행은 DELETE 조건에 걸려 남아 있다
+                deletable.removeAll(findIds.apply(deletable));
+            }
+
+            for (Long id : chunk) {
+                if (deletable.contains(id)) {
+                    deleted.add(id);
+                } else if (existing.contains(id)) {
+                    blocked.add(id);
+                } else {
+                    notFound.add(id);
+                }
+            }
+        }
+
+        return BulkDeleteResultDto.builder()
+                .requested(requested.size())
+                .deletedIds(deleted)
+                .blockedIds(blocked)
+                .notFoundIds(notFound)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.skala.stock.service;
 
+import com.skala.stock.dto.BulkDeleteResultDto;
 import com.skala.stock.dto.StockDto;
 import com.skala.stock.entity.Stock;
 import com.skala.stock.repository.PortfolioRepository;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -96,6 +98,13 @@ public class StockService {
         stockRepository.deleteById(id);
     }
 
+    // 일괄 삭제: 참조 중인 id는 건너뛰고 결과에 담는다 (BulkDeleter)
+    @Transactional
+    public BulkDeleteResultDto deleteStocks(Collection<Long> ids) {
+        return BulkDeleter.deleteUnreferenced(ids, stockRepository::findIdsByIdIn,
+                stockRepository::findUnreferencedIdsByIdIn, stockRepository::deleteUnreferencedByIdIn);
+    }
+
     private Stock getStockEntity(Long id) {
         return stockRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("주식을 찾을 수 없습니다: " + id));
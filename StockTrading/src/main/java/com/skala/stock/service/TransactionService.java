@@ -2,9 +2,11 @@ package com.skala.stock.service;
 
 import com.skala.stock.dto.TradeRequestDto;
 import com.skala.stock.dto.TransactionDto;
+import com.skala.stock.entity.Portfolio;
 import com.skala.stock.entity.Stock;
 import com.skala.stock.entity.Transaction;
 import com.skala.stock.entity.User;
+import com.skala.stock.repository.PortfolioRepository;
 import com.skala.stock.repository.StockRepository;
 import com.skala.stock.repository.TransactionRepository;
 import com.skala.stock.repository.UserRepository;
@@ -23,47 +25,45 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final StockRepository stockRepository;
-    private final PortfolioService portfolioService;
+    private final PortfolioRepository portfolioRepository;
 
+    /**
+     * 매매 한 건을 실행한다.
+     * 잔액과 보유 수량은 미리 읽어 검사하지 않고 조건부 UPDATE/MERGE 한 문장으로 바꾼다.
+     * 반영된 행이 0이면 그때만 다시 조회해서 기존과 같은 오류 메시지를 만든다.
+     */
     @Transactional
     public TransactionDto executeTrade(TradeRequestDto tradeRequest) {
-        User user = userRepository.findById(tradeRequest.getUserId())
-                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + tradeRequest.getUserId()));
+        Long userId = tradeRequest.getUserId();
+        Long quantity = tradeRequest.getQuantity();
         Stock stock = stockRepository.findById(tradeRequest.getStockId())
                 .orElseThrow(() -> new RuntimeException("주식을 찾을 수 없습니다: " + tradeRequest.getStockId()));
 
         Long currentPrice = stock.getCurrentPrice();
-        Long totalAmount = currentPrice * tradeRequest.getQuantity();
+        Long totalAmount = currentPrice * quantity;
 
         if (tradeRequest.getType() == Transaction.TransactionType.BUY) {
-            if (user.getBalance() < totalAmount) {
+            if (userRepository.withdrawIfSufficient(userId, totalAmount) == 0) {
+                User user = findUser(userId);
                 throw new RuntimeException("잔액이 부족합니다. 필요 금액: " + totalAmount + ", 보유 금액: " + user.getBalance());
             }
-            user.setBalance(user.getBalance() - totalAmount);
-            portfolioService.addToPortfolio(user.getId(), stock.getId(), tradeRequest.getQuantity(), currentPrice);
+            portfolioRepository.mergeBuy(userId, stock.getId(), quantity, currentPrice);
         } else {
-            var portfolio = portfolioService.getPortfolio(user.getId(), stock.getId());
-            if (portfolio == null || portfolio.getQuantity() < tradeRequest.getQuantity()) {
-                throw new RuntimeException("보유 수량이 부족합니다. 보유 수량: " + (portfolio != null ? portfolio.getQuantity() : 0) + ", 매도 수량: " + tradeRequest.getQuantity());
-            }
-
-            user.setBalance(user.getBalance() + totalAmount);
-
-            Long remainingQuantity = portfolio.getQuantity() - tradeRequest.getQuantity();
-            if (remainingQuantity > 0) {
-                portfolioService.updatePortfolio(user.getId(), stock.getId(), remainingQuantity);
-            } else {
-                portfolioService.removeFromPortfolio(user.getId(), stock.getId());
+            if (portfolioRepository.mergeSell(userId, stock.getId(), quantity) == 0) {
+                findUser(userId);
+                Long held = portfolioRepository.findByUserIdAndStockId(userId, stock.getId())
+                        .map(Portfolio::getQuantity)
+                        .orElse(0L);
+                throw new RuntimeException("보유 수량이 부족합니다. 보유 수량: " + held + ", 매도 수량: " + quantity);
             }
+            userRepository.deposit(userId, totalAmount);
         }
 
-        userRepository.save(user); // 없어도 동작하긴 하지만 명시적으로 저장한 것. 원래는 JPA의 영속성 컨텍스트가 변경 감지를 통해 자동으로 반영해줌
-
         Transaction transaction = Transaction.builder() // “이번 거래 한 건”을 DB에 기록하기 위해 Transaction 객체를 만듭니다.
-                .user(user)
+                .user(userRepository.getReferenceById(userId)) // 사용자 행은 이미 UPDATE로 바꿨으므로 다시 읽지 않고 참조만 건다
                 .stock(stock)
                 .type(tradeRequest.getType())
-                .quantity(tradeRequest.getQuantity())
+                .quantity(quantity)
                 .price(currentPrice)
                 .totalAmount(totalAmount)
                 .build();
@@ -72,6 +72,11 @@ public class TransactionService {
         return convertToDto(savedTransaction);
     }
 
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
+    }
+
     public List<TransactionDto> getUserTransactions(Long userId) {
         return transactionRepository.findByUserIdOrderByTransactionDateDesc(userId).stream()
                 .map(this::convertToDto)
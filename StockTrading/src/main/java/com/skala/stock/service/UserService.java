@@ -1,5 +1,6 @@
 package com.skala.stock.service;
 
+import com.skala.stock.dto.BulkDeleteResultDto;
 import com.skala.stock.dto.UserDto;
 import com.skala.stock.entity.User;
 import com.skala.stock.repository.PortfolioRepository;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -97,6 +99,13 @@ public class UserService {
         userRepository.deleteById(id);
     }
 
+    // 일괄 삭제: 참조 중인 id는 건너뛰고 결과에 담는다 (BulkDeleter)
+    @Transactional
+    public BulkDeleteResultDto deleteUsers(Collection<Long> ids) {
+        return BulkDeleter.deleteUnreferenced(ids, userRepository::findIdsByIdIn,
+                userRepository::findUnreferencedIdsByIdIn, userRepository::deleteUnreferencedByIdIn);
+    }
+
     private User getUserEntity(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + id));
@@ -0,0 +1,47 @@
+#!/bin/sh
+# 기동 시간 비교: 프로세스 시작 → 첫 거래 성공(HTTP 200)까지 걸린 시간과 그 시점의 RSS
+#
+# 사용법 (StockTrading2 디렉터리에서):
+#   ./gradlew bootJar && ./gradlew -Paot cdsLayout
+#   (cd build/cds && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+#        -Dspring.aot.enabled=true -Dspring.profiles.active=fast -jar app.jar)
+#   scripts/startup-bench.sh [반복 횟수]
+#
+# Linux 전용 (/proc/<pid>/status 의 VmRSS 사용)
+
+RUNS=${1:-5}
+PORT=18080
+TRADE_URL="http://localhost:$PORT/api/transactions/trade?stockId=1&userId=1&type=BUY&quantity=1"
+BOOT_JAR=$(ls build/libs/*.jar | grep -v plain | head -1)
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    label=$1
+    shift
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        start=$(now_ms)
+        "$@" --server.port=$PORT > /dev/null 2>&1 &
+        pid=$!
+        until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "$TRADE_URL")" = "200" ]; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$label: 프로세스가 종료되었습니다" >&2
+                return 1
+            fi
+            sleep 0.05
+        done
+        elapsed=$(( $(now_ms) - start ))
+        rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        echo "$label run=$i firstTradeMs=$elapsed rssKb=$rss"
+        kill "$pid"
+        wait "$pid" 2>/dev/null
+        i=$((i + 1))
+    done
+}
+
+measure baseline java -jar "$BOOT_JAR"
+(cd build/cds && measure fast java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast -jar app.jar)
@@ -0,0 +1,38 @@
+package com.skala.stock.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 빠른 기동 모드(fast 프로필) 설정.
+ *
+ * application-fast.yml에서 spring.main.lazy-initialization을 켜되, 이 필터로 지연 대상을
+ * 첫 거래와 무관한 빈(API 문서)으로 한정한다. 나머지 빈은 기존처럼 기동 시점에 만들어지므로
+ * 첫 요청 지연이나 @Scheduled 누락 같은 부작용이 없다.
+ */
+@Configuration
+@Profile("fast")
+public class FastStartupConfig {
+
+    private static final String[] NON_CRITICAL_PACKAGES = {"org.springdoc."};
+
+    // BeanFactoryPostProcessor 단계에서 조회되므로 static으로 등록한다
+    @Bean
+    static LazyInitializationExcludeFilter eagerExceptNonCritical() {
+        return (beanName, beanDefinition, beanType) -> !isNonCritical(beanType);
+    }
+
+    private static boolean isNonCritical(Class<?> beanType) {
+        if (beanType == null) {
+            return false;
+        }
+        for (String prefix : NON_CRITICAL_PACKAGES) {
+            if (beanType.getName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.skala.stock.config;
+
+import com.skala.stock.service.TradeRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 거래 요청이 TransactionService.tradeStock(DB 커넥션 획득)까지 가기 전에 사용자별 요청량을 제한한다.
+ * 초과하면 429와 Retry-After(초) 헤더를 돌려준다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TradeRateLimitInterceptor implements HandlerInterceptor {
+
+    private final TradeRateLimiter tradeRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        Long userId = parseUserId(request.getParameter("userId"));
+        if (userId == null) {
+            return true; // 파라미터 검증은 컨트롤러에 맡긴다
+        }
+
+        long result = tradeRateLimiter.tryAcquire(userId);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(tradeRateLimiter.getBurst()));
+        if (result >= 0) {
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(result));
+            return true;
+        }
+
+        long retryAfterMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(-result));
+        long retryAfterSeconds = Math.max(1L, (retryAfterMillis + 999) / 1000);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("X-RateLimit-Remaining", "0");
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"message\":\"거래 요청이 너무 많습니다. 잠시 후 다시 시도하세요.\",\"retryAfterMillis\":"
+                + retryAfterMillis + "}");
+        return false;
+    }
+
+    private static Long parseUserId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
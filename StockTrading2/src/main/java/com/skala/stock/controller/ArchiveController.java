@@ -0,0 +1,35 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.service.TransactionArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal/archive")
+@RequiredArgsConstructor
+@Tag(name = "운영", description = "내부 운영 지표 API")
+public class ArchiveController {
+
+    private final TransactionArchiveService transactionArchiveService;
+
+    @PostMapping("/transactions")
+    @Operation(summary = "거래 내역 아카이브", description = "지정한 일수보다 오래된 거래를 압축 세그먼트 파일로 옮깁니다")
+    public ResponseEntity<Map<String, Object>> archiveTransactions(@RequestParam long olderThanDays) {
+        if (olderThanDays < 0) {
+            throw new IllegalArgumentException("olderThanDays는 0 이상이어야 합니다.");
+        }
+        return ResponseEntity.ok(transactionArchiveService.archive(LocalDateTime.now().minusDays(olderThanDays)));
+    }
+
+    @GetMapping("/transactions")
+    @Operation(summary = "아카이브 현황", description = "세그먼트 수, 보관 거래 수, 파일 크기를 조회합니다")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        return ResponseEntity.ok(transactionArchiveService.getStats());
+    }
+}
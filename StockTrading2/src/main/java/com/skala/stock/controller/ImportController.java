@@ -0,0 +1,43 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.dto.ImportResultDto;
+import com.skala.stock.service.BulkImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@Tag(name = "일괄 적재", description = "CSV 대용량 적재 API")
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+
+    @PostMapping(value = "/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "CSV 일괄 적재",
+            description = "users / stocks / transactions CSV를 스트리밍으로 적재합니다. 같은 jobName으로 다시 호출하면 체크포인트 이후부터 이어서 적재합니다")
+    public ResponseEntity<ImportResultDto> importCsv(@PathVariable String type,
+                                                     @RequestParam String jobName,
+                                                     @RequestParam MultipartFile file) {
+        BulkImportService.ImportType importType = BulkImportService.ImportType.valueOf(type.toUpperCase());
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(bulkImportService.importCsv(importType, jobName, in));
+        } catch (IOException e) {
+            throw new RuntimeException("업로드 파일을 열 수 없습니다: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    @PostMapping("/portfolios/rebuild")
+    @Operation(summary = "포트폴리오 재구성", description = "거래 내역을 재생해서 portfolios 테이블을 다시 만듭니다")
+    public ResponseEntity<ImportResultDto> rebuildPortfolios() {
+        return ResponseEntity.ok(bulkImportService.rebuildPortfolios());
+    }
+}
@@ -0,0 +1,35 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.service.AnalysisRequestCoalescer;
+import com.skala.stock.service.TradeRateLimiter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/internal")
+@RequiredArgsConstructor
+@Tag(name = "운영", description = "내부 운영 지표 API")
+public class InternalMetricsController {
+
+    private final TradeRateLimiter tradeRateLimiter;
+    private final AnalysisRequestCoalescer analysisRequestCoalescer;
+
+    @GetMapping("/rate-limit")
+    @Operation(summary = "거래 요청 제한 지표", description = "허용/거절 건수와 활성 버킷 수를 조회합니다")
+    public ResponseEntity<Map<String, Object>> getRateLimitMetrics() {
+        return ResponseEntity.ok(tradeRateLimiter.getMetrics());
+    }
+
+    @GetMapping("/coalescing")
+    @Operation(summary = "분석 요청 병합 지표", description = "실제 계산/합류/TTL 적중 건수를 조회합니다")
+    public ResponseEntity<Map<String, Object>> getCoalescingMetrics() {
+        return ResponseEntity.ok(analysisRequestCoalescer.getMetrics());
+    }
+}
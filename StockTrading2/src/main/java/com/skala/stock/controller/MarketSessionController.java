@@ -0,0 +1,33 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.dto.MarketSessionDto;
+import com.skala.stock.service.MarketSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/market/session")
+@RequiredArgsConstructor
+@Tag(name = "운영", description = "내부 운영 지표 API")
+public class MarketSessionController {
+
+    private final MarketSessionService marketSessionService;
+
+    @GetMapping
+    @Operation(summary = "장 운영 상태", description = "현재 장 단계, 대기 주문 수, 최근 단일가 체결/장 마감 처리 결과를 조회합니다")
+    public ResponseEntity<MarketSessionDto> getSession() {
+        return ResponseEntity.ok(marketSessionService.getStatus());
+    }
+
+    @PostMapping("/advance")
+    @Operation(summary = "장 단계 전환", description = "다음 단계로 넘깁니다. 단일가 체결과 장 마감 일괄 처리는 전환 시점에 실행됩니다")
+    public ResponseEntity<MarketSessionDto> advance() {
+        return ResponseEntity.ok(marketSessionService.advance());
+    }
+}
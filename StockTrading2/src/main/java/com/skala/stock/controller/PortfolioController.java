@@ -1,6 +1,7 @@
 package com.skala.stock.controller;
 
 import com.skala.stock.dto.PortfolioDto;
+import com.skala.stock.service.DataVersionService;
 import com.skala.stock.service.PortfolioService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,12 +23,17 @@ import com.skala.stock.entity.User;
 public class PortfolioController {
 
     private final PortfolioService portfolioService;
+    private final DataVersionService dataVersionService;
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "사용자 포트폴리오 조회", description = "특정 사용자의 전체 포트폴리오를 조회합니다")
-    public ResponseEntity<List<PortfolioDto>> getUserPortfolio(@PathVariable Long userId) {
+    @Operation(summary = "사용자 포트폴리오 조회", description = "특정 사용자의 전체 포트폴리오를 조회합니다 (ETag 지원, 변경 없으면 304)")
+    public ResponseEntity<List<PortfolioDto>> getUserPortfolio(@PathVariable Long userId, WebRequest request) {
+        String eTag = dataVersionService.portfolioETag(userId);
+        if (request.checkNotModified(eTag)) {
+            return null; // 304 Not Modified, 조회 없이 종료
+        }
         List<PortfolioDto> portfolios = portfolioService.getUserPortfolio(userId);
-        return ResponseEntity.ok(portfolios);
+        return ResponseEntity.ok().eTag(eTag).body(portfolios);
     }
 
     @GetMapping("/user/{userId}/stocks/{stockId}")
@@ -0,0 +1,35 @@
+package com.skala.stock.controller;
+
+import com.skala.stock.dto.ReconciliationReportDto;
+import com.skala.stock.service.PortfolioReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/reconciliation")
+@RequiredArgsConstructor
+@Tag(name = "운영", description = "내부 운영 지표 API")
+public class ReconciliationController {
+
+    private final PortfolioReconciliationService portfolioReconciliationService;
+
+    @PostMapping("/portfolios")
+    @Operation(summary = "포트폴리오 정합성 점검 시작", description = "포트폴리오와 거래 내역 재생 결과를 백그라운드에서 비교합니다")
+    public ResponseEntity<ReconciliationReportDto> startReconciliation() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(portfolioReconciliationService.start());
+    }
+
+    @GetMapping("/portfolios")
+    @Operation(summary = "포트폴리오 정합성 점검 결과", description = "실행 중인 점검의 진행 상황 또는 마지막 점검 결과를 조회합니다")
+    public ResponseEntity<ReconciliationReportDto> getReconciliationReport() {
+        ReconciliationReportDto report = portfolioReconciliationService.getReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+}
@@ -1,6 +1,8 @@
 package com.skala.stock.controller;
 
 import com.skala.stock.dto.StockDto;
+import com.skala.stock.service.DataVersionService;
+import com.skala.stock.service.StockListJsonCache;
 import com.skala.stock.service.StockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,8 +10,10 @@ import jakarta.persistence.StoredProcedureParameter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -24,6 +28,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 public class StockController {
 
     private final StockService stockService;
+    private final DataVersionService dataVersionService;
+    private final StockListJsonCache stockListJsonCache;
 
     @PostMapping
     @Operation(summary = "주식 생성", description = "새로운 주식을 등록합니다")
@@ -40,10 +46,16 @@ public class StockController {
     }
 
     @GetMapping
-    @Operation(summary = "전체 주식 조회", description = "모든 주식을 조회합니다")
-    public ResponseEntity<List<StockDto>> getAllStocks() {
-        List<StockDto> stocks = stockService.getAllStocks();
-        return ResponseEntity.ok(stocks);
+    @Operation(summary = "전체 주식 조회", description = "모든 주식을 조회합니다 (ETag 지원, 변경 없으면 304)")
+    public ResponseEntity<byte[]> getAllStocks(WebRequest request) {
+        String eTag = dataVersionService.stockListETag();
+        if (request.checkNotModified(eTag)) {
+            return null; // 304 Not Modified, 조회 없이 종료
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stockListJsonCache.getBody());
     }
 
 
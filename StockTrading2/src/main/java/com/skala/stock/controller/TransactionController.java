@@ -1,6 +1,9 @@
 package com.skala.stock.controller;
 
+import com.skala.stock.dto.AuctionOrderDto;
 import com.skala.stock.dto.TransactionDto;
+import com.skala.stock.service.MarketSessionService;
+import com.skala.stock.service.MarketSessionState;
 import com.skala.stock.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -18,6 +21,8 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final MarketSessionService marketSessionService;
+    private final MarketSessionState marketSessionState;
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "사용자 거래 내역 조회", description = "특정 사용자의 전체 거래 내역을 조회합니다")
@@ -36,11 +41,17 @@ public class TransactionController {
     }
 
     @PostMapping("/trade")
-    @Operation(summary = "주식 매수/매도", description = "사용자가 주식을 매수하거나 매도합니다")
-    public ResponseEntity<TransactionDto> tradeStock(@RequestParam Long stockId,
-                                                     @RequestParam Long userId,
-                                                     @RequestParam String type,
-                                                     @RequestParam Integer quantity) {
+    @Operation(summary = "주식 매수/매도",
+            description = "사용자가 주식을 매수하거나 매도합니다. 단일가 접수 시간에는 주문장에 넣고 202를 반환합니다 (limitPrice 생략 시 시장가)")
+    public ResponseEntity<?> tradeStock(@RequestParam Long stockId,
+                                        @RequestParam Long userId,
+                                        @RequestParam String type,
+                                        @RequestParam Integer quantity,
+                                        @RequestParam(required = false) Long limitPrice) {
+        if (marketSessionState.isCallPhase()) {
+            AuctionOrderDto order = marketSessionService.queueOrder(stockId, userId, type, quantity, limitPrice);
+            return ResponseEntity.accepted().body(order);
+        }
         TransactionDto transaction = transactionService.tradeStock(stockId, userId, type, quantity);
         return ResponseEntity.ok(transaction);  
     }  
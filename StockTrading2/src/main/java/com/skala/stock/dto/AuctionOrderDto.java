@@ -0,0 +1,17 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AuctionOrderDto {
+    private Long orderId;
+    private Long stockId;
+    private Long userId;
+    private String type;
+    private Long quantity;
+    private Long limitPrice; // null이면 시장가
+    private String phase;    // 접수된 단일가 단계 (PRE_OPEN, PRE_CLOSE)
+    private String status;   // QUEUED
+}
@@ -0,0 +1,31 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Builder
+public class AuctionResultDto {
+    private String auction;          // OPEN, CLOSE
+    private LocalDateTime executedAt;
+
+    private Long ordersReceived;
+    private Long ordersRejected;     // 잔액/보유 수량 부족으로 경매 전에 제외된 주문
+    private Long fills;
+    private Long failedFills;
+
+    private List<StockResult> stocks;
+    private Long elapsedMs;
+
+    @Getter
+    @Builder
+    public static class StockResult {
+        private Long stockId;
+        private Long price;          // 단일 체결가 (체결이 없으면 기준가)
+        private Long volume;
+        private Long imbalance;      // 체결가에서 남은 매수/매도 잔량 차이
+    }
+}
@@ -0,0 +1,22 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@Builder
+public class EndOfDayReportDto {
+    private LocalDate tradingDate;
+    private String status;              // COMPLETED, FAILED
+
+    private Long stocksRolled;          // 전일 종가를 갱신한 종목 수 (샤드별 복제 포함)
+    private Long rollupRows;
+    private Long snapshotRows;
+
+    private Map<String, Long> stageMs;  // 단계별 소요 시간
+    private Long elapsedMs;
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class ImportResultDto {
+    private String jobName;
+    private String type;
+
+    private Long resumedFromLine; // 체크포인트로 건너뛴 줄 수
+    private Long processedRows;
+    private Long insertedRows;
+    private Long skippedRows;     // 중복/참조 없음 등으로 적재되지 않은 행
+    private Long rejectedRows;    // 검증 실패 행
+
+    private Long elapsedMs;
+    private Double rowsPerSecond;
+
+    private List<String> errors;  // 검증 실패 샘플 (최대 100건)
+}
@@ -0,0 +1,19 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@Builder
+public class MarketSessionDto {
+    private String phase;
+    private LocalDate tradingDate;
+    private Boolean clockEnabled;   // false면 /internal/market/session/advance 로만 단계가 바뀐다
+    private Long queuedOrders;
+
+    private AuctionResultDto lastOpeningAuction;
+    private AuctionResultDto lastClosingAuction;
+    private EndOfDayReportDto lastEndOfDay;
+}
@@ -0,0 +1,28 @@
+package com.skala.stock.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Builder
+public class ReconciliationReportDto {
+    private String runId;
+    private String status;            // RUNNING, COMPLETED, FAILED
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    private Long usersScanned;
+    private Long positionsChecked;    // 포트폴리오와 재생 결과를 합친 (사용자, 종목) 수
+    private Long transactionsScanned;
+    private Long driftCount;          // 재확인까지 거친 불일치 건수 (portfolio_drifts에 기록)
+
+    private Long throttledMs;         // 라이브 거래에 양보하느라 쉰 시간 (워커 합계)
+    private Long elapsedMs;
+    private String error;
+
+    private List<String> drifts;      // 불일치 샘플 (최대 100건)
+}
@@ -0,0 +1,53 @@
+package com.skala.stock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 장 마감 시점 사용자별 자산 스냅샷이다. 종가 기준으로 평가하며 (거래일, 사용자)당 한 행이다.
+ */
+@Entity
+@Table(name = "daily_asset_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_asset_snapshots", columnNames = {"trading_date", "user_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyAssetSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trading_date", nullable = false)
+    private LocalDate tradingDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long cash;
+
+    @Column(name = "stock_value", nullable = false)
+    private Long stockValue;
+
+    @Column(name = "total_assets", nullable = false)
+    private Long totalAssets;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
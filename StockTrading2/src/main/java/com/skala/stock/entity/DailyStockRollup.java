@@ -0,0 +1,61 @@
+package com.skala.stock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 장 마감 후 집계하는 종목별 일간 거래 요약이다. (거래일, 종목)당 한 행이며 다시 집계하면 덮어쓴다.
+ */
+@Entity
+@Table(name = "daily_stock_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_stock_rollups", columnNames = {"trading_date", "stock_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyStockRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trading_date", nullable = false)
+    private LocalDate tradingDate;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Column(name = "trade_count", nullable = false)
+    private Long tradeCount;
+
+    @Column(name = "buy_quantity", nullable = false)
+    private Long buyQuantity;
+
+    @Column(name = "sell_quantity", nullable = false)
+    private Long sellQuantity;
+
+    @Column(nullable = false)
+    private Long turnover; // 거래 대금
+
+    private Long vwap; // 거래량 가중 평균가 (거래가 없으면 null)
+
+    @Column(name = "close_price", nullable = false)
+    private Long closePrice; // 종가 (종가 단일가 반영 후 현재가)
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
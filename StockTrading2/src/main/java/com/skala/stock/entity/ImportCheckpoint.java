@@ -0,0 +1,39 @@
+package com.skala.stock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * CSV 일괄 적재 작업의 재시작 지점이다.
+ *
+ * - 청크를 커밋하는 같은 트랜잭션 안에서 마지막으로 처리한 줄 번호를 기록한다
+ * - 같은 jobName으로 다시 실행하면 기록된 줄 이후부터 이어서 적재한다
+ */
+@Entity
+@Table(name = "import_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_line", nullable = false)
+    private Long lastLine;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,73 @@
+package com.skala.stock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 포트폴리오 정합성 점검에서 발견된 불일치 한 건이다.
+ *
+ * - portfolio_*: portfolios 테이블에 저장된 값 (포트폴리오가 없으면 null)
+ * - expected_*: 거래 내역(테이블 + 아카이브)을 재생해서 계산한 값
+ */
+@Entity
+@Table(name = "portfolio_drifts", indexes = @Index(name = "idx_portfolio_drifts_run", columnList = "run_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioDrift {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "drift_type", nullable = false, length = 20)
+    private DriftType driftType;
+
+    @Column(name = "portfolio_quantity")
+    private Long portfolioQuantity;
+
+    @Column(name = "expected_quantity", nullable = false)
+    private Long expectedQuantity;
+
+    @Column(name = "portfolio_average_price")
+    private Long portfolioAveragePrice;
+
+    @Column(name = "expected_average_price", nullable = false)
+    private Long expectedAveragePrice;
+
+    @Column(name = "detected_at")
+    private LocalDateTime detectedAt;
+
+    public enum DriftType {
+        QUANTITY,          // 보유 수량 불일치
+        AVERAGE_PRICE,     // 수량은 같고 평균단가만 불일치
+        MISSING_PORTFOLIO, // 거래상 보유 중인데 포트폴리오가 없음
+        ORPHAN_PORTFOLIO   // 거래상 보유분이 없는데 포트폴리오가 남아 있음
+    }
+}
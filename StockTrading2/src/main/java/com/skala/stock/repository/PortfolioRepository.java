@@ -1,7 +1,10 @@
 package com.skala.stock.repository;
 
+import com.skala.stock.dto.PortfolioDto;
 import com.skala.stock.entity.Portfolio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,12 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     List<Portfolio> findByUserId(Long userId);
     Optional<Portfolio> findByUserIdAndStockId(Long userId, Long stockId);
     boolean existsByUserIdAndStockId(Long userId, Long stockId);
+
+    // 평가 금액/손익까지 쿼리에서 계산해 Portfolio/User/Stock 엔티티를 만들지 않는다
+    @Query("SELECT new com.skala.stock.dto.PortfolioDto(p.id, u.id, u.username, s.id, s.code, s.name, "
+            + "p.quantity, p.averagePrice, s.currentPrice, p.quantity * s.currentPrice, "
+            + "p.quantity * s.currentPrice - p.quantity * p.averagePrice) "
+            + "FROM Portfolio p JOIN p.user u JOIN p.stock s "
+            + "WHERE u.id = :userId ORDER BY p.id")
+    List<PortfolioDto> findDtosByUserId(@Param("userId") Long userId);
 }
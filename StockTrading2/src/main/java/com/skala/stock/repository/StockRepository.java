@@ -1,13 +1,31 @@
 package com.skala.stock.repository;
 
+import com.skala.stock.dto.StockDto;
 import com.skala.stock.entity.Stock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
+
+    // 종목 코드 조회는 거의 모든 요청에서 반복되므로 쿼리 캐시에 올린다
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.stock-by-code")
+    })
     Optional<Stock> findByCode(String code);
+
     boolean existsByCode(String code);
+
+    // 목록 조회는 엔티티를 영속성 컨텍스트에 올리지 않고 컬럼을 바로 DTO로 만든다
+    @Query("SELECT new com.skala.stock.dto.StockDto(s.id, s.code, s.name, s.currentPrice, s.previousPrice) "
+            + "FROM Stock s ORDER BY s.id")
+    List<StockDto> findAllAsDto();
 }
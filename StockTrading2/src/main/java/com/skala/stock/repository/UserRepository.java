@@ -1,15 +1,33 @@
 package com.skala.stock.repository;
 
+import com.skala.stock.dto.UserDto;
 import com.skala.stock.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // users 테이블이 갱신되면(잔액 변경 등) Hibernate가 이 영역을 자동으로 무효화한다
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.user-by-username")
+    })
     Optional<User> findByUsername(String username);
+
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // 목록 조회는 엔티티를 영속성 컨텍스트에 올리지 않고 컬럼을 바로 DTO로 만든다
+    @Query("SELECT new com.skala.stock.dto.UserDto(u.id, u.username, u.password, u.email, u.balance) "
+            + "FROM User u ORDER BY u.id")
+    List<UserDto> findAllAsDto();
 }
@@ -0,0 +1,117 @@
+package com.skala.stock.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 사용자에 대한 같은 분석 요청이 동시에 몰리면 계산을 한 번만 수행하고 결과를 나눠 쓴다(single-flight).
+ *
+ * - 키: (메서드, userId, 데이터 버전). 거래가 커밋되어 버전이 바뀐 뒤 들어온 요청은 이전 계산에 합류하지 않는다
+ * - micro-TTL: 계산이 끝난 결과를 짧게(ttl-ms) 보관한다. 버전이 바뀌면 TTL과 무관하게 버린다
+ *
+ * 트랜잭션 밖(컨트롤러)에서 호출해야 대기 중인 요청이 DB 커넥션을 붙잡지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalysisRequestCoalescer {
+
+    private final DataVersionService dataVersionService;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, Cached> recent = new ConcurrentHashMap<>();
+
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder ttlHits = new LongAdder();
+
+    @Value("${stock.analysis.coalescing.ttl-ms:200}")
+    private long ttlMillis;
+
+    @Value("${stock.analysis.coalescing.max-cached:10000}")
+    private int maxCached;
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Long userId, Supplier<T> loader) {
+        Key key = new Key(method, userId, dataVersionService.portfolioETag(userId));
+
+        if (ttlMillis > 0) {
+            Cached cached = recent.get(key);
+            if (cached != null && System.nanoTime() - cached.expiresAt() < 0) {
+                ttlHits.increment();
+                return (T) cached.value();
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            joined.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T result = loader.get();
+            computed.increment();
+            if (ttlMillis > 0) {
+                cache(key, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // Error(OOM 등)도 전달해야 합류한 요청들이 영원히 기다리지 않는다
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("computed", computed.sum());
+        metrics.put("joined", joined.sum());
+        metrics.put("ttlHits", ttlHits.sum());
+        metrics.put("inFlight", inFlight.size());
+        metrics.put("cached", recent.size());
+        return metrics;
+    }
+
+    private void cache(Key key, Object value) {
+        long now = System.nanoTime();
+        // 옛 버전 결과는 키가 달라 다시 조회되지 않고 TTL이 지나면 여기서 정리된다
+        if (recent.size() >= maxCached) {
+            recent.values().removeIf(c -> now - c.expiresAt() >= 0);
+        }
+        recent.put(key, new Cached(value, now + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String method, Long userId, String version) {
+    }
+
+    private record Cached(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,439 @@
+package com.skala.stock.service;
+
+import com.skala.stock.dto.ImportResultDto;
+import com.skala.stock.sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 대용량 CSV 일괄 적재 서비스다.
+ *
+ * 흐름:
+ * - 파싱: 호출 스레드 하나가 파일을 한 줄씩 읽어 청크(chunk-size)만큼만 메모리에 둔다
+ * - 검증: 청크 단위로 병렬 검증한다 (줄 순서는 유지)
+ * - 저장: JDBC batch로 청크마다 별도 트랜잭션에 커밋하고, 같은 트랜잭션에서 체크포인트를 남긴다
+ *
+ * JPA를 거치지 않으므로 적재 후 2차 캐시/쿼리 캐시와 ETag 버전을 직접 무효화한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+
+    private static final int MAX_ERROR_SAMPLES = 100;
+
+    private static final String UPSERT_CHECKPOINT_SQL = """
+            MERGE INTO import_checkpoints (job_name, last_line, updated_at) KEY (job_name)
+            VALUES (?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String REPLAY_TRANSACTIONS_SQL = """
+            SELECT t.user_id, t.stock_id, t.type, t.quantity, t.price
+            FROM transactions t
+            ORDER BY t.user_id, t.stock_id, t.transaction_date, t.id
+            """;
+
+    private static final String INSERT_PORTFOLIO_SQL = """
+            INSERT INTO portfolios (user_id, stock_id, quantity, average_price, created_at, updated_at)
+            VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataVersionService dataVersionService;
+    private final TransactionArchiveService transactionArchiveService;
+    private final ShardRouter shardRouter;
+
+    @Value("${stock.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public enum ImportType {
+
+        // username,password,email,balance
+        USERS("""
+                INSERT INTO users (username, password, email, balance, created_at, updated_at)
+                SELECT ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = ? OR email = ?)
+                """) {
+            @Override
+            Object[] toParams(String[] f) {
+                requireColumns(f, 4);
+                String username = requireText(f[0], "username", 3, 50);
+                String password = requireText(f[1], "password", 4, 100);
+                String email = requireText(f[2], "email", 3, 100);
+                if (!email.contains("@")) {
+                    throw new IllegalArgumentException("올바른 이메일 형식이 아닙니다: " + email);
+                }
+                long balance = requireLong(f[3], "balance", 0);
+                return new Object[]{username, password, email, balance, username, email};
+            }
+        },
+
+        // code,name,current_price,previous_price
+        STOCKS("""
+                INSERT INTO stocks (code, name, current_price, previous_price, created_at, updated_at)
+                SELECT ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                WHERE NOT EXISTS (SELECT 1 FROM stocks WHERE code = ?)
+                """) {
+            @Override
+            Object[] toParams(String[] f) {
+                requireColumns(f, 3);
+                String code = requireText(f[0], "code", 1, 20);
+                String name = requireText(f[1], "name", 1, 100);
+                long currentPrice = requireLong(f[2], "current_price", 1);
+                Long previousPrice = f.length > 3 && !f[3].isBlank() ? requireLong(f[3], "previous_price", 0) : null;
+                return new Object[]{code, name, currentPrice, previousPrice, code};
+            }
+        },
+
+        // username,stock_code,type,quantity,price,transaction_date
+        // 사용자/종목이 없으면 INSERT ... SELECT 결과가 0건이 되어 skipped로 집계된다
+        TRANSACTIONS("""
+                INSERT INTO transactions (user_id, stock_id, type, quantity, price, total_amount, transaction_date, created_at)
+                SELECT u.id, s.id, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP
+                FROM users u JOIN stocks s ON s.code = ?
+                WHERE u.username = ?
+                """) {
+            @Override
+            Object[] toParams(String[] f) {
+                requireColumns(f, 5);
+                String username = requireText(f[0], "username", 3, 50);
+                String stockCode = requireText(f[1], "stock_code", 1, 20);
+                String type = requireText(f[2], "type", 3, 4).toUpperCase();
+                if (!type.equals("BUY") && !type.equals("SELL")) {
+                    throw new IllegalArgumentException("거래 유형은 BUY/SELL 이어야 합니다: " + type);
+                }
+                long quantity = requireLong(f[3], "quantity", 1);
+                long price = requireLong(f[4], "price", 1);
+                LocalDateTime transactionDate = f.length > 5 && !f[5].isBlank()
+                        ? LocalDateTime.parse(f[5].trim())
+                        : LocalDateTime.now();
+                long totalAmount = Math.multiplyExact(quantity, price);
+                return new Object[]{type, quantity, price, totalAmount, Timestamp.valueOf(transactionDate), stockCode, username};
+            }
+        };
+
+        private final String insertSql;
+
+        ImportType(String insertSql) {
+            this.insertSql = insertSql;
+        }
+
+        abstract Object[] toParams(String[] fields);
+    }
+
+    public ImportResultDto importCsv(ImportType type, String jobName, InputStream in) {
+        // 적재 SQL은 DB identity와 단일 DB 기준 중복 검사에 의존하므로 샤드 모드에서는 막는다
+        checkNotSharded();
+        long startNanos = System.nanoTime();
+        long resumeLine = loadCheckpoint(jobName);
+        Counters counters = new Counters();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            reader.readLine(); // 헤더
+
+            List<RawLine> chunk = new ArrayList<>(chunkSize);
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo <= resumeLine || line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawLine(lineNo, line));
+                if (chunk.size() == chunkSize) {
+                    processChunk(type, jobName, chunk, counters);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(type, jobName, chunk, counters);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("CSV 파일을 읽을 수 없습니다: " + jobName, e);
+        } finally {
+            // 중간에 실패해도 이미 커밋된 청크는 반영되어 있으므로 캐시는 항상 비운다
+            invalidateCaches(type);
+        }
+
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        double rowsPerSecond = elapsedMs == 0 ? counters.processed : counters.processed * 1000.0 / elapsedMs;
+        log.info("[IMPORT] job={} type={} processed={} inserted={} skipped={} rejected={} elapsedMs={} rows/s={}",
+                jobName, type, counters.processed, counters.inserted, counters.skipped, counters.rejected,
+                elapsedMs, String.format("%.1f", rowsPerSecond));
+
+        return ImportResultDto.builder()
+                .jobName(jobName)
+                .type(type.name())
+                .resumedFromLine(resumeLine)
+                .processedRows(counters.processed)
+                .insertedRows(counters.inserted)
+                .skippedRows(counters.skipped)
+                .rejectedRows(counters.rejected)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(counters.errors)
+                .build();
+    }
+
+    /**
+     * 거래 내역을 (사용자, 종목, 거래일) 순으로 흘려 읽으면서 포트폴리오를 다시 만든다.
+     * TransactionService.updatePortfolio와 같은 규칙(매수 시 가중 평균, 전량 매도 시 제거)으로 재생한다.
+     * 한 번에 하나의 (사용자, 종목) 상태만 들고 있으므로 메모리는 거래 건수와 무관하다.
+     */
+    public ImportResultDto rebuildPortfolios() {
+        checkNotSharded();
+        // 재생은 테이블의 거래만 읽으므로, 아카이브된 거래가 있으면 포지션이 틀어진다
+        if (transactionArchiveService.hasArchivedData()) {
+            throw new RuntimeException("아카이브된 거래가 있어 포트폴리오를 재구성할 수 없습니다.");
+        }
+
+        long startNanos = System.nanoTime();
+
+        PortfolioReplay replay = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM portfolios");
+
+            PortfolioReplay r = new PortfolioReplay();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(REPLAY_TRANSACTIONS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(chunkSize);
+                return ps;
+            }, r);
+            r.finish();
+            return r;
+        });
+
+        dataVersionService.markAllUsersChanged();
+
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        double rowsPerSecond = elapsedMs == 0 ? replay.scanned : replay.scanned * 1000.0 / elapsedMs;
+        log.info("[IMPORT] portfolio rebuild scanned={} portfolios={} elapsedMs={}", replay.scanned, replay.written, elapsedMs);
+
+        return ImportResultDto.builder()
+                .jobName("portfolio-rebuild")
+                .type("PORTFOLIOS")
+                .resumedFromLine(0L)
+                .processedRows(replay.scanned)
+                .insertedRows(replay.written)
+                .skippedRows(0L)
+                .rejectedRows(0L)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(Collections.emptyList())
+                .build();
+    }
+
+    private void processChunk(ImportType type, String jobName, List<RawLine> chunk, Counters counters) {
+        // 검증은 병렬로, 결과는 원래 줄 순서대로 모은다
+        List<ParsedLine> parsed = chunk.parallelStream()
+                .map(raw -> parse(type, raw))
+                .toList();
+
+        List<Object[]> batch = new ArrayList<>(parsed.size());
+        for (ParsedLine p : parsed) {
+            if (p.error() != null) {
+                counters.rejected++;
+                if (counters.errors.size() < MAX_ERROR_SAMPLES) {
+                    counters.errors.add("line " + p.lineNo() + ": " + p.error());
+                }
+            } else {
+                batch.add(p.params());
+            }
+        }
+
+        long lastLine = chunk.get(chunk.size() - 1).lineNo();
+        int[] results = transactionTemplate.execute(status -> {
+            int[] r = batch.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(type.insertSql, batch);
+            jdbcTemplate.update(UPSERT_CHECKPOINT_SQL, jobName, lastLine);
+            return r;
+        });
+
+        for (int count : results) {
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                counters.inserted++;
+            } else {
+                counters.skipped++;
+            }
+        }
+        counters.processed += chunk.size();
+    }
+
+    private static ParsedLine parse(ImportType type, RawLine raw) {
+        try {
+            return new ParsedLine(raw.lineNo(), type.toParams(splitCsv(raw.line())), null);
+        } catch (RuntimeException e) {
+            return new ParsedLine(raw.lineNo(), null, e.getMessage());
+        }
+    }
+
+    private long loadCheckpoint(String jobName) {
+        List<Long> lines = jdbcTemplate.queryForList(
+                "SELECT last_line FROM import_checkpoints WHERE job_name = ?", Long.class, jobName);
+        return lines.isEmpty() ? 0L : lines.get(0);
+    }
+
+    private void invalidateCaches(ImportType type) {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        if (type == ImportType.STOCKS) {
+            dataVersionService.markStocksChanged();
+        } else {
+            dataVersionService.markAllUsersChanged();
+        }
+    }
+
+    // 따옴표("...")와 이스케이프된 따옴표("")만 처리하는 최소 CSV 파서
+    static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static void requireColumns(String[] f, int min) {
+        if (f.length < min) {
+            throw new IllegalArgumentException("컬럼 수가 부족합니다. 필요: " + min + ", 실제: " + f.length);
+        }
+    }
+
+    private static String requireText(String value, String name, int min, int max) {
+        String v = value == null ? "" : value.trim();
+        if (v.length() < min || v.length() > max) {
+            throw new IllegalArgumentException(name + " 길이는 " + min + "~" + max + "자여야 합니다: " + v);
+        }
+        return v;
+    }
+
+    private static long requireLong(String value, String name, long min) {
+        long v;
+        try {
+            v = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " 값이 숫자가 아닙니다: " + value);
+        }
+        if (v < min) {
+            throw new IllegalArgumentException(name + " 값은 " + min + " 이상이어야 합니다: " + v);
+        }
+        return v;
+    }
+
+    private record RawLine(long lineNo, String line) {
+    }
+
+    private record ParsedLine(long lineNo, Object[] params, String error) {
+    }
+
+    private static final class Counters {
+        long processed;
+        long inserted;
+        long skipped;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+    }
+
+    private void checkNotSharded() {
+        if (shardRouter.isSharded()) {
+            throw new RuntimeException("샤드 모드에서는 일괄 적재를 지원하지 않습니다.");
+        }
+    }
+
+    /**
+     * (user_id, stock_id) 순으로 정렬된 거래를 한 줄씩 받아 포트폴리오를 재생한다.
+     */
+    private final class PortfolioReplay implements RowCallbackHandler {
+
+        private final List<Object[]> batch = new ArrayList<>();
+
+        private final PositionReplay position = new PositionReplay();
+
+        private Long userId;
+        private Long stockId;
+
+        private long scanned;
+        private long written;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowUserId = rs.getLong("user_id");
+            long rowStockId = rs.getLong("stock_id");
+            if (userId == null || userId != rowUserId || stockId != rowStockId) {
+                flushPosition();
+                userId = rowUserId;
+                stockId = rowStockId;
+                position.reset();
+            }
+
+            position.apply("BUY".equals(rs.getString("type")), rs.getLong("quantity"), rs.getLong("price"));
+            scanned++;
+        }
+
+        void finish() {
+            flushPosition();
+            flushBatch();
+        }
+
+        private void flushPosition() {
+            if (userId != null && position.quantity() > 0L) {
+                batch.add(new Object[]{userId, stockId, position.quantity(), position.averagePrice()});
+                if (batch.size() >= chunkSize) {
+                    flushBatch();
+                }
+            }
+        }
+
+        private void flushBatch() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PORTFOLIO_SQL, batch);
+                written += batch.size();
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.skala.stock.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 단일가 매매 한 종목분의 체결 가격과 배분을 계산한다(uncross).
+ *
+ * 가격 결정:
+ * 1. 체결 수량 min(매수 누적, 매도 누적)이 최대인 가격
+ * 2. 같으면 잔량 |매수 누적 - 매도 누적|이 최소인 가격
+ * 3. 그래도 같으면 기준가(직전 현재가)에 가까운 가격
+ * 후보는 지정가 주문의 가격들이고, 지정가 주문이 없으면 기준가 하나다.
+ *
+ * 배분: 시장가 우선 → 가격 우선 → 접수 순서. 경계에 걸린 주문은 부분 체결된다.
+ */
+final class CallAuction {
+
+    private CallAuction() {
+    }
+
+    /**
+     * limitPrice가 null이면 시장가 주문이다.
+     */
+    record Order(long orderId, long userId, boolean buy, long quantity, Long limitPrice, long seq) {
+
+        boolean acceptsPrice(long price) {
+            if (limitPrice == null) {
+                return true;
+            }
+            return buy ? limitPrice >= price : limitPrice <= price;
+        }
+    }
+
+    record Fill(Order order, long quantity) {
+    }
+
+    record Result(long price, long volume, long imbalance, List<Fill> fills) {
+    }
+
+    private static final Comparator<Order> BUY_PRIORITY = Comparator
+            .comparing((Order o) -> o.limitPrice() == null ? Long.MAX_VALUE : o.limitPrice(), Comparator.reverseOrder())
+            .thenComparingLong(Order::seq);
+
+    private static final Comparator<Order> SELL_PRIORITY = Comparator
+            .comparing((Order o) -> o.limitPrice() == null ? Long.MIN_VALUE : o.limitPrice())
+            .thenComparingLong(Order::seq);
+
+    /**
+     * 체결 가능한 가격 중 가장 높은 값. 시장가 매수의 최악 체결가를 추정할 때 쓴다.
+     */
+    static long maxCandidatePrice(List<Order> orders, long referencePrice) {
+        long max = referencePrice;
+        for (Order o : orders) {
+            if (o.limitPrice() != null) {
+                max = Math.max(max, o.limitPrice());
+            }
+        }
+        return max;
+    }
+
+    static Result uncross(List<Order> orders, long referencePrice) {
+        // 가격별 지정가 수량 (후보 가격 = 지정가들)
+        TreeMap<Long, long[]> byPrice = new TreeMap<>(); // price -> {buyQty, sellQty}
+        long marketBuy = 0L;
+        long marketSell = 0L;
+        for (Order o : orders) {
+            if (o.limitPrice() == null) {
+                if (o.buy()) {
+                    marketBuy += o.quantity();
+                } else {
+                    marketSell += o.quantity();
+                }
+            } else {
+                long[] qty = byPrice.computeIfAbsent(o.limitPrice(), p -> new long[2]);
+                qty[o.buy() ? 0 : 1] += o.quantity();
+            }
+        }
+        if (byPrice.isEmpty()) {
+            byPrice.put(referencePrice, new long[2]);
+        }
+
+        // 매수 누적은 높은 가격부터, 매도 누적은 낮은 가격부터 쌓는다
+        Map<Long, Long> buyAtOrAbove = new TreeMap<>();
+        long cumulative = marketBuy;
+        for (Map.Entry<Long, long[]> e : byPrice.descendingMap().entrySet()) {
+            cumulative += e.getValue()[0];
+            buyAtOrAbove.put(e.getKey(), cumulative);
+        }
+
+        long bestPrice = referencePrice;
+        long bestVolume = 0L;
+        long bestImbalance = Long.MAX_VALUE;
+        long sellCumulative = marketSell;
+        for (Map.Entry<Long, long[]> e : byPrice.entrySet()) {
+            long price = e.getKey();
+            sellCumulative += e.getValue()[1];
+            long buy = buyAtOrAbove.get(price);
+            long volume = Math.min(buy, sellCumulative);
+            long imbalance = Math.abs(buy - sellCumulative);
+            boolean better = volume > bestVolume
+                    || (volume == bestVolume && volume > 0 && (imbalance < bestImbalance
+                    || (imbalance == bestImbalance
+                    && Math.abs(price - referencePrice) < Math.abs(bestPrice - referencePrice))));
+            if (better) {
+                bestPrice = price;
+                bestVolume = volume;
+                bestImbalance = imbalance;
+            }
+        }
+
+        if (bestVolume == 0L) {
+            return new Result(referencePrice, 0L, 0L, List.of());
+        }
+
+        List<Fill> fills = new ArrayList<>();
+        allocate(orders, true, bestPrice, bestVolume, BUY_PRIORITY, fills);
+        allocate(orders, false, bestPrice, bestVolume, SELL_PRIORITY, fills);
+        return new Result(bestPrice, bestVolume, bestImbalance, fills);
+    }
+
+    private static void allocate(List<Order> orders, boolean buy, long price, long volume,
+                                 Comparator<Order> priority, List<Fill> fills) {
+        List<Order> side = orders.stream()
+                .filter(o -> o.buy() == buy && o.acceptsPrice(price))
+                .sorted(priority)
+                .toList();
+        long remaining = volume;
+        for (Order o : side) {
+            if (remaining == 0L) {
+                break;
+            }
+            long qty = Math.min(remaining, o.quantity());
+            fills.add(new Fill(o, qty));
+            remaining -= qty;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.skala.stock.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 조건부 GET(ETag) 판단에 쓰는 데이터 버전 저장소다.
+ *
+ * - 주식 목록 버전: Stock 생성/수정/삭제 시 증가 (Stock.updatedAt 기준)
+ * - 사용자 버전: 거래/사용자 수정 시 증가 (Portfolio.updatedAt 기준)
+ *
+ * 버전은 커밋 이후에만 올린다. 커밋 전에 올리면 다른 요청이 옛 데이터를 새 ETag로 받아갈 수 있다.
+ * 시작 시각으로 초기화하므로 재시작하면 기존 ETag는 모두 무효가 된다.
+ */
+@Service
+public class DataVersionService {
+
+    private final long bootVersion = System.currentTimeMillis();
+    private final AtomicLong stockVersion = new AtomicLong(bootVersion);
+    private final ConcurrentMap<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    private final AtomicLong allUsersVersion = new AtomicLong(bootVersion);
+
+    public long getStockVersion() {
+        return stockVersion.get();
+    }
+
+    public long getUserVersion(Long userId) {
+        AtomicLong version = userVersions.get(userId);
+        return version == null ? bootVersion : version.get();
+    }
+
+    // 약한(W/) ETag를 쓴다: Tomcat은 강한 ETag가 붙은 응답은 gzip 압축하지 않는다 (바이트가 달라지므로).
+    // If-None-Match 비교(WebRequest.checkNotModified)는 약한 비교라 W/ 형태도 그대로 맞춰진다
+    public String stockListETag() {
+        return "W/\"stocks-" + getStockVersion() + "\"";
+    }
+
+    // 포트폴리오 응답에는 현재가가 들어가므로 주식 버전도 함께 묶는다
+    public String portfolioETag(Long userId) {
+        return "W/\"portfolio-" + userId + "-" + getUserVersion(userId) + "-" + allUsersVersion.get()
+                + "-" + getStockVersion() + "\"";
+    }
+
+    // 엔티티의 updatedAt과 같은 시계를 쓴다. 같은 밀리초 안의 변경도 구분되도록 최소 1씩 증가시킨다
+    public void markStocksChanged() {
+        afterCommit(() -> bump(stockVersion));
+    }
+
+    public void markUserChanged(Long userId) {
+        afterCommit(() -> bump(userVersions.computeIfAbsent(userId, id -> new AtomicLong(bootVersion))));
+    }
+
+    // 일괄 적재처럼 사용자 전체에 영향을 주는 작업 이후 호출한다
+    public void markAllUsersChanged() {
+        afterCommit(() -> bump(allUsersVersion));
+    }
+
+    private static void bump(AtomicLong version) {
+        long now = System.currentTimeMillis();
+        version.accumulateAndGet(now, (prev, ts) -> Math.max(prev + 1, ts));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
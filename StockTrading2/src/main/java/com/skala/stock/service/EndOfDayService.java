@@ -0,0 +1,203 @@
+package com.skala.stock.service;
+
+import com.skala.stock.dto.EndOfDayReportDto;
+import com.skala.stock.sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 장 마감 후 일괄 처리(end-of-day) 파이프라인이다.
+ *
+ * 1단계 (병렬): 서로 다른 테이블만 쓰므로 동시에 돌린다. 샤드가 여러 개면 단계 안에서도 샤드별로 병렬 처리한다
+ * - closing-prices: 전일 종가(previous_price)를 오늘 종가(current_price)로 넘긴다
+ * - stock-rollups: 종목별 일간 거래 요약 (daily_stock_rollups)
+ * - asset-snapshots: 종가 기준 사용자별 자산 스냅샷 (daily_asset_snapshots)
+ * 2단계: JDBC로 직접 바꾼 값이 보이도록 2차 캐시/ETag 버전을 무효화한다
+ *
+ * 모든 쓰기는 MERGE라 같은 거래일로 다시 실행해도 결과가 같다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EndOfDayService {
+
+    private static final String ROLL_PREVIOUS_PRICE_SQL =
+            "UPDATE stocks SET previous_price = current_price, updated_at = CURRENT_TIMESTAMP";
+
+    private static final String DAILY_TRADES_SQL = """
+            SELECT t.stock_id,
+                   COUNT(*) AS trade_count,
+                   COALESCE(SUM(CASE WHEN t.type = 'BUY' THEN t.quantity ELSE 0 END), 0) AS buy_quantity,
+                   COALESCE(SUM(CASE WHEN t.type = 'SELL' THEN t.quantity ELSE 0 END), 0) AS sell_quantity,
+                   COALESCE(SUM(t.total_amount), 0) AS turnover
+            FROM transactions t
+            WHERE t.transaction_date >= ? AND t.transaction_date < ?
+            GROUP BY t.stock_id
+            """;
+
+    private static final String MERGE_ROLLUP_SQL = """
+            MERGE INTO daily_stock_rollups (trading_date, stock_id, trade_count, buy_quantity, sell_quantity,
+                                            turnover, vwap, close_price, created_at)
+            KEY (trading_date, stock_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String MERGE_SNAPSHOT_SQL = """
+            MERGE INTO daily_asset_snapshots (trading_date, user_id, cash, stock_value, total_assets, created_at)
+            KEY (trading_date, user_id)
+            SELECT ?, u.id, u.balance,
+                   COALESCE(SUM(p.quantity * s.current_price), 0),
+                   u.balance + COALESCE(SUM(p.quantity * s.current_price), 0),
+                   CURRENT_TIMESTAMP
+            FROM users u
+            LEFT JOIN portfolios p ON p.user_id = u.id
+            LEFT JOIN stocks s ON s.id = p.stock_id
+            GROUP BY u.id, u.balance
+            """;
+
+    private final ShardRouter shardRouter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataVersionService dataVersionService;
+
+    public EndOfDayReportDto run(LocalDate tradingDate) {
+        long startNanos = System.nanoTime();
+        Map<String, Long> stageMs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long parallelStart = System.nanoTime();
+            CompletableFuture<Long> rolled = CompletableFuture.supplyAsync(
+                    () -> timed(stageMs, "closing-prices",
+                            () -> onEveryShard(executor, this::rollPreviousPrices, Math::max)), executor);
+            CompletableFuture<Long> rollups = CompletableFuture.supplyAsync(
+                    () -> timed(stageMs, "stock-rollups", () -> writeRollups(executor, tradingDate)), executor);
+            CompletableFuture<Long> snapshots = CompletableFuture.supplyAsync(
+                    () -> timed(stageMs, "asset-snapshots",
+                            () -> onEveryShard(executor, shard -> writeSnapshots(shard, tradingDate), Long::sum)), executor);
+            CompletableFuture.allOf(rolled, rollups, snapshots).join();
+            stageMs.put("parallel-total", elapsedMillis(parallelStart));
+
+            timed(stageMs, "publish", () -> {
+                entityManagerFactory.getCache().evictAll();
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+                dataVersionService.markStocksChanged();
+                dataVersionService.markAllUsersChanged();
+                return 0L;
+            });
+
+            EndOfDayReportDto report = EndOfDayReportDto.builder()
+                    .tradingDate(tradingDate)
+                    .status("COMPLETED")
+                    .stocksRolled(rolled.join())
+                    .rollupRows(rollups.join())
+                    .snapshotRows(snapshots.join())
+                    .stageMs(new LinkedHashMap<>(stageMs))
+                    .elapsedMs(elapsedMillis(startNanos))
+                    .build();
+            log.info("[EOD] date={} rolled={} rollups={} snapshots={} stageMs={} elapsedMs={}",
+                    tradingDate, report.getStocksRolled(), report.getRollupRows(), report.getSnapshotRows(),
+                    report.getStageMs(), report.getElapsedMs());
+            return report;
+        } catch (RuntimeException e) {
+            log.error("[EOD] date={} 실패", tradingDate, e);
+            return EndOfDayReportDto.builder()
+                    .tradingDate(tradingDate)
+                    .status("FAILED")
+                    .stageMs(new LinkedHashMap<>(stageMs))
+                    .elapsedMs(elapsedMillis(startNanos))
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    // 주식은 모든 샤드에 복제되어 있으므로 샤드마다 같이 넘긴다 (건수는 샤드 하나 기준으로 센다)
+    private long rollPreviousPrices(int shard) {
+        return shardRouter.jdbc(shard).update(ROLL_PREVIOUS_PRICE_SQL);
+    }
+
+    private long writeSnapshots(int shard, LocalDate tradingDate) {
+        return shardRouter.jdbc(shard).update(MERGE_SNAPSHOT_SQL, Date.valueOf(tradingDate));
+    }
+
+    /**
+     * 샤드별 부분 집계를 모아 종목 단위로 합친 뒤 기본 샤드(0)에 기록한다.
+     * 거래가 없는 종목도 종가 기록을 위해 한 행씩 남긴다.
+     */
+    private long writeRollups(ExecutorService executor, LocalDate tradingDate) {
+        Timestamp from = Timestamp.valueOf(tradingDate.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(tradingDate.plusDays(1).atStartOfDay());
+
+        List<CompletableFuture<Map<Long, long[]>>> partials = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int s = shard;
+            partials.add(CompletableFuture.supplyAsync(() -> {
+                Map<Long, long[]> partial = new HashMap<>();
+                shardRouter.jdbc(s).query(DAILY_TRADES_SQL, (ResultSet rs) -> {
+                    partial.put(rs.getLong("stock_id"), new long[]{rs.getLong("trade_count"),
+                            rs.getLong("buy_quantity"), rs.getLong("sell_quantity"), rs.getLong("turnover")});
+                }, from, to);
+                return partial;
+            }, executor));
+        }
+
+        Map<Long, long[]> totals = new HashMap<>();
+        for (CompletableFuture<Map<Long, long[]>> partial : partials) {
+            partial.join().forEach((stockId, v) -> totals.merge(stockId, v, (a, b) -> new long[]{
+                    a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3]}));
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        shardRouter.jdbc(0).query("SELECT id, current_price FROM stocks ORDER BY id", (ResultSet rs) -> {
+            long stockId = rs.getLong("id");
+            long[] t = totals.getOrDefault(stockId, new long[4]);
+            long volume = t[1] + t[2];
+            Long vwap = volume == 0L ? null : t[3] / volume;
+            rows.add(new Object[]{Date.valueOf(tradingDate), stockId, t[0], t[1], t[2], t[3], vwap,
+                    rs.getLong("current_price")});
+        });
+        shardRouter.jdbc(0).batchUpdate(MERGE_ROLLUP_SQL, rows);
+        return rows.size();
+    }
+
+    // 샤드별 건수를 합친다: 샤드마다 다른 행이면 합(Long::sum), 복제된 행이면 최댓값(Math::max)
+    private long onEveryShard(ExecutorService executor, IntToLongFunction work, LongBinaryOperator combine) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int s = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> work.applyAsLong(s), executor));
+        }
+        return futures.stream().mapToLong(CompletableFuture::join).reduce(combine).orElse(0L);
+    }
+
+    private static long timed(Map<String, Long> stageMs, String stage, Supplier<Long> work) {
+        long startNanos = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            stageMs.put(stage, elapsedMillis(startNanos));
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
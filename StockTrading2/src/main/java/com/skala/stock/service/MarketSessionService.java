@@ -0,0 +1,343 @@
+package com.skala.stock.service;
+
+import com.skala.stock.dto.AuctionOrderDto;
+import com.skala.stock.dto.AuctionResultDto;
+import com.skala.stock.dto.EndOfDayReportDto;
+import com.skala.stock.dto.MarketSessionDto;
+import com.skala.stock.dto.PortfolioDto;
+import com.skala.stock.entity.Transaction.TransactionType;
+import com.skala.stock.service.MarketSessionState.Phase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 하루 장 운영 단계를 관리한다.
+ *
+ * CLOSED → PRE_OPEN(시가 단일가 접수) → [시가 단일가 체결] → CONTINUOUS(접속 매매) → PRE_CLOSE(종가 단일가 접수)
+ * → [종가 단일가 체결] → CLOSED → [장 마감 일괄 처리]
+ *
+ * - clock-enabled가 true면 설정된 시각(zone 기준, 주말 휴장)에 맞춰 단계를 넘긴다
+ * - 기본값(false)에서는 기존처럼 항상 CONTINUOUS이고, /internal/market/session/advance로만 단계를 넘긴다
+ * - 단일가 접수 단계의 주문은 메모리 주문장에 쌓였다가 체결 시점에 한 가격으로 체결되고, 남은 잔량은 취소된다
+ */
+@Slf4j
+@Service
+public class MarketSessionService {
+
+    private final MarketSessionState state;
+    private final TransactionService transactionService;
+    private final StockService stockService;
+    private final UserService userService;
+    private final PortfolioService portfolioService;
+    private final EndOfDayService endOfDayService;
+
+    private final boolean clockEnabled;
+    private final ZoneId zone;
+    private final LocalTime preOpenAt;
+    private final LocalTime openAt;
+    private final LocalTime preCloseAt;
+    private final LocalTime closeAt;
+
+    // 종목별 단일가 주문장. 접수와 체결 직전 스냅샷은 이 객체로 동기화한다
+    private final Map<Long, List<CallAuction.Order>> book = new TreeMap<>();
+    private final Map<Long, String> orderTypes = new HashMap<>();
+    private final AtomicLong orderSeq = new AtomicLong();
+
+    private volatile boolean clockInitialized;
+    private volatile LocalDate tradingDate;
+    private volatile AuctionResultDto lastOpeningAuction;
+    private volatile AuctionResultDto lastClosingAuction;
+    private volatile EndOfDayReportDto lastEndOfDay;
+
+    public MarketSessionService(MarketSessionState state,
+                                TransactionService transactionService,
+                                StockService stockService,
+                                UserService userService,
+                                PortfolioService portfolioService,
+                                EndOfDayService endOfDayService,
+                                @Value("${stock.market.session.clock-enabled:false}") boolean clockEnabled,
+                                @Value("${stock.market.session.zone:}") String zone,
+                                @Value("${stock.market.session.pre-open:08:30}") String preOpenAt,
+                                @Value("${stock.market.session.open:09:00}") String openAt,
+                                @Value("${stock.market.session.pre-close:15:20}") String preCloseAt,
+                                @Value("${stock.market.session.close:15:30}") String closeAt) {
+        this.state = state;
+        this.transactionService = transactionService;
+        this.stockService = stockService;
+        this.userService = userService;
+        this.portfolioService = portfolioService;
+        this.endOfDayService = endOfDayService;
+        this.clockEnabled = clockEnabled;
+        // 거래일 집계가 transaction_date(서버 로컬 시각)와 맞도록 기본은 서버 시간대를 쓴다
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.preOpenAt = LocalTime.parse(preOpenAt);
+        this.openAt = LocalTime.parse(openAt);
+        this.preCloseAt = LocalTime.parse(preCloseAt);
+        this.closeAt = LocalTime.parse(closeAt);
+    }
+
+    /**
+     * 단일가 접수 단계에서 주문을 주문장에 넣는다. limitPrice가 null이면 시장가 주문이다.
+     */
+    public AuctionOrderDto queueOrder(Long stockId, Long userId, String type, Integer quantity, Long limitPrice) {
+        if (stockId == null || userId == null) {
+            throw new IllegalArgumentException("주식 ID와 사용자 ID는 필수입니다.");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("수량은 0보다 커야 합니다.");
+        }
+        if (limitPrice != null && limitPrice <= 0) {
+            throw new IllegalArgumentException("지정가는 0보다 커야 합니다.");
+        }
+        TransactionType tradeType = TransactionType.valueOf(type.toUpperCase());
+        stockService.getStockById(stockId);
+        userService.getUserById(userId);
+
+        CallAuction.Order order;
+        Phase phase;
+        synchronized (book) {
+            phase = state.current();
+            if (!state.isCallPhase()) {
+                throw new RuntimeException("단일가 주문 접수 시간이 아닙니다. 현재 장 단계: " + phase);
+            }
+            long seq = orderSeq.incrementAndGet();
+            order = new CallAuction.Order(seq, userId, tradeType == TransactionType.BUY, quantity, limitPrice, seq);
+            book.computeIfAbsent(stockId, id -> new ArrayList<>()).add(order);
+            orderTypes.put(seq, tradeType.name());
+        }
+
+        return AuctionOrderDto.builder()
+                .orderId(order.orderId())
+                .stockId(stockId)
+                .userId(userId)
+                .type(tradeType.name())
+                .quantity(order.quantity())
+                .limitPrice(limitPrice)
+                .phase(phase.name())
+                .status("QUEUED")
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.market.session.tick-ms:1000}")
+    public void tick() {
+        if (!clockEnabled) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        Phase target = phaseAt(now);
+
+        // 장중에 서버가 뜬 경우에는 지나간 경매/일괄 처리를 돌리지 않고 현재 단계로 맞춘다
+        if (!clockInitialized) {
+            synchronized (this) {
+                state.set(target);
+                tradingDate = now.toLocalDate();
+                clockInitialized = true;
+            }
+            log.info("[SESSION] clock started phase={} zone={}", target, zone);
+            return;
+        }
+
+        // 한 번에 최대 한 바퀴만 돈다 (서버가 오래 멈췄다가 깨어난 경우)
+        for (int step = 0; step < 4 && state.current() != target; step++) {
+            advance();
+        }
+    }
+
+    /**
+     * 다음 단계로 넘기면서 그 경계에서 해야 할 일(단일가 체결, 장 마감 일괄 처리)을 수행한다.
+     */
+    public synchronized MarketSessionDto advance() {
+        Phase from = state.current();
+        switch (from) {
+            case CLOSED -> {
+                tradingDate = LocalDate.now(zone);
+                state.set(Phase.PRE_OPEN);
+            }
+            case PRE_OPEN -> {
+                state.set(Phase.UNCROSSING);
+                try {
+                    lastOpeningAuction = runAuction("OPEN");
+                } finally {
+                    state.set(Phase.CONTINUOUS);
+                }
+            }
+            case CONTINUOUS -> state.set(Phase.PRE_CLOSE);
+            case PRE_CLOSE -> {
+                state.set(Phase.UNCROSSING);
+                try {
+                    lastClosingAuction = runAuction("CLOSE");
+                } finally {
+                    state.set(Phase.CLOSED);
+                }
+                lastEndOfDay = endOfDayService.run(tradingDate != null ? tradingDate : LocalDate.now(zone));
+            }
+            case UNCROSSING -> throw new IllegalStateException("단일가 체결 중에는 단계를 넘길 수 없습니다.");
+        }
+        log.info("[SESSION] {} -> {}", from, state.current());
+        return getStatus();
+    }
+
+    public MarketSessionDto getStatus() {
+        long queued;
+        synchronized (book) {
+            queued = book.values().stream().mapToLong(List::size).sum();
+        }
+        return MarketSessionDto.builder()
+                .phase(state.current().name())
+                .tradingDate(tradingDate)
+                .clockEnabled(clockEnabled)
+                .queuedOrders(queued)
+                .lastOpeningAuction(lastOpeningAuction)
+                .lastClosingAuction(lastClosingAuction)
+                .lastEndOfDay(lastEndOfDay)
+                .build();
+    }
+
+    private Phase phaseAt(ZonedDateTime now) {
+        DayOfWeek day = now.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return Phase.CLOSED;
+        }
+        LocalTime time = now.toLocalTime();
+        if (time.isBefore(preOpenAt) || !time.isBefore(closeAt)) {
+            return Phase.CLOSED;
+        }
+        if (time.isBefore(openAt)) {
+            return Phase.PRE_OPEN;
+        }
+        return time.isBefore(preCloseAt) ? Phase.CONTINUOUS : Phase.PRE_CLOSE;
+    }
+
+    private AuctionResultDto runAuction(String auction) {
+        long startNanos = System.nanoTime();
+
+        Map<Long, List<CallAuction.Order>> snapshot;
+        Map<Long, String> types;
+        synchronized (book) {
+            snapshot = new TreeMap<>(book);
+            types = new HashMap<>(orderTypes);
+            book.clear();
+            orderTypes.clear();
+        }
+
+        long received = snapshot.values().stream().mapToLong(List::size).sum();
+        Map<Long, Long> referencePrices = new HashMap<>();
+        for (Long stockId : snapshot.keySet()) {
+            referencePrices.put(stockId, stockService.getStockById(stockId).getCurrentPrice());
+        }
+
+        Map<Long, List<CallAuction.Order>> eligible = filterAffordable(snapshot, referencePrices);
+        long rejected = received - eligible.values().stream().mapToLong(List::size).sum();
+
+        List<AuctionResultDto.StockResult> results = new ArrayList<>();
+        long fills = 0L;
+        long failedFills = 0L;
+        for (Map.Entry<Long, List<CallAuction.Order>> entry : eligible.entrySet()) {
+            Long stockId = entry.getKey();
+            CallAuction.Result result = CallAuction.uncross(entry.getValue(), referencePrices.get(stockId));
+
+            for (CallAuction.Fill fill : result.fills()) {
+                CallAuction.Order order = fill.order();
+                try {
+                    transactionService.fillAuctionOrder(stockId, order.userId(), types.get(order.orderId()),
+                            fill.quantity(), result.price());
+                    fills++;
+                } catch (RuntimeException e) {
+                    // 사전 검증 이후 잔액/보유 수량이 바뀐 경우. 해당 주문만 빠지고 상대편 배분은 유지된다
+                    failedFills++;
+                    log.warn("[AUCTION] {} fill failed order={} stock={} user={}: {}",
+                            auction, order.orderId(), stockId, order.userId(), e.getMessage());
+                }
+            }
+            if (result.volume() > 0L) {
+                stockService.updateCurrentPrice(stockId, result.price());
+            }
+
+            results.add(AuctionResultDto.StockResult.builder()
+                    .stockId(stockId)
+                    .price(result.price())
+                    .volume(result.volume())
+                    .imbalance(result.imbalance())
+                    .build());
+        }
+
+        AuctionResultDto dto = AuctionResultDto.builder()
+                .auction(auction)
+                .executedAt(LocalDateTime.now())
+                .ordersReceived(received)
+                .ordersRejected(rejected)
+                .fills(fills)
+                .failedFills(failedFills)
+                .stocks(results)
+                .elapsedMs((System.nanoTime() - startNanos) / 1_000_000)
+                .build();
+        log.info("[AUCTION] {} received={} rejected={} fills={} failed={} elapsedMs={}",
+                auction, received, rejected, fills, failedFills, dto.getElapsedMs());
+        return dto;
+    }
+
+    /**
+     * 체결될 수 있는 최악의 가격으로 잔액/보유 수량을 미리 확인해서, 감당할 수 없는 주문은 경매 전에 뺀다.
+     * 접수 순서대로 예산을 차감하므로 같은 사용자의 늦은 주문부터 제외된다.
+     * 경매 중에는 접속 매매가 막혀 있어 이 검증 결과가 체결 시점까지 유지된다.
+     */
+    private Map<Long, List<CallAuction.Order>> filterAffordable(Map<Long, List<CallAuction.Order>> snapshot,
+                                                                 Map<Long, Long> referencePrices) {
+        Map<Long, Long> maxPrices = new HashMap<>();
+        List<Map.Entry<Long, CallAuction.Order>> all = new ArrayList<>();
+        for (Map.Entry<Long, List<CallAuction.Order>> entry : snapshot.entrySet()) {
+            maxPrices.put(entry.getKey(), CallAuction.maxCandidatePrice(entry.getValue(), referencePrices.get(entry.getKey())));
+            entry.getValue().forEach(o -> all.add(Map.entry(entry.getKey(), o)));
+        }
+        all.sort(Comparator.comparingLong(e -> e.getValue().seq()));
+
+        Map<Long, Long> cash = new HashMap<>();
+        Map<Long, Map<Long, Long>> holdings = new HashMap<>();
+        Map<Long, List<CallAuction.Order>> eligible = new LinkedHashMap<>();
+        for (Map.Entry<Long, CallAuction.Order> e : all) {
+            Long stockId = e.getKey();
+            CallAuction.Order order = e.getValue();
+            boolean accepted;
+            if (order.buy()) {
+                long worstPrice = order.limitPrice() != null ? order.limitPrice() : maxPrices.get(stockId);
+                long need = worstPrice * order.quantity();
+                long available = cash.computeIfAbsent(order.userId(), id -> userService.getUserById(id).getBalance());
+                accepted = available >= need;
+                if (accepted) {
+                    cash.put(order.userId(), available - need);
+                }
+            } else {
+                Map<Long, Long> held = holdings.computeIfAbsent(order.userId(), id -> portfolioService.getUserPortfolio(id)
+                        .stream()
+                        .collect(Collectors.toMap(PortfolioDto::getStockId, PortfolioDto::getQuantity)));
+                long available = held.getOrDefault(stockId, 0L);
+                accepted = available >= order.quantity();
+                if (accepted) {
+                    held.put(stockId, available - order.quantity());
+                }
+            }
+            if (accepted) {
+                eligible.computeIfAbsent(stockId, id -> new ArrayList<>()).add(order);
+            }
+        }
+        return eligible;
+    }
+}
@@ -0,0 +1,44 @@
+package com.skala.stock.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 현재 장 운영 단계만 들고 있는 작은 빈이다.
+ * 거래 서비스는 이 값만 보고 즉시 체결 여부를 판단하고, 단계 전환은 MarketSessionService가 맡는다.
+ */
+@Component
+public class MarketSessionState {
+
+    public enum Phase {
+        PRE_OPEN,    // 시가 단일가 주문 접수
+        CONTINUOUS,  // 접속 매매 (기존처럼 즉시 체결)
+        PRE_CLOSE,   // 종가 단일가 주문 접수
+        UNCROSSING,  // 단일가 체결 중 (주문 불가)
+        CLOSED       // 장 마감
+    }
+
+    // 세션 스케줄을 끈 기본 구성에서는 기존처럼 항상 즉시 체결한다
+    private final AtomicReference<Phase> phase = new AtomicReference<>(Phase.CONTINUOUS);
+
+    public Phase current() {
+        return phase.get();
+    }
+
+    public boolean isCallPhase() {
+        Phase p = phase.get();
+        return p == Phase.PRE_OPEN || p == Phase.PRE_CLOSE;
+    }
+
+    public void requireContinuous() {
+        Phase p = phase.get();
+        if (p != Phase.CONTINUOUS) {
+            throw new RuntimeException("지금은 즉시 체결할 수 없습니다. 현재 장 단계: " + p);
+        }
+    }
+
+    void set(Phase next) {
+        phase.set(next);
+    }
+}
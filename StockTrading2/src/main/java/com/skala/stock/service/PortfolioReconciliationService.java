@@ -0,0 +1,453 @@
+package com.skala.stock.service;
+
+import com.skala.stock.dto.ReconciliationReportDto;
+import com.skala.stock.entity.PortfolioDrift.DriftType;
+import com.skala.stock.entity.Transaction.TransactionType;
+import com.skala.stock.service.TransactionArchiveService.ArchivedTransaction;
+import com.skala.stock.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * portfolios 테이블(updatePortfolio가 갱신하는 보유 상태)과 거래 내역을 재생한 결과가 일치하는지 점검한다.
+ *
+ * 흐름:
+ * - 샤드별로 사용자 id를 chunk-size만큼 keyset 페이징해서 청크를 만든다
+ * - 워커(workers)가 청크마다 포트폴리오와 거래를 user_id 범위로 읽어 (사용자, 종목)별 수량/평균단가를 비교한다
+ * - 불일치가 보이면 잠시 뒤 해당 사용자만 다시 읽어, 두 번 모두 어긋난 것만 portfolio_drifts에 기록한다
+ *   (거래 커밋 중간에 두 테이블을 따로 읽으면 일시적으로 어긋나 보일 수 있다)
+ *
+ * 라이브 거래 보호:
+ * - 청크는 auto-commit 조회로 읽으므로 긴 트랜잭션이나 잠금을 잡지 않는다
+ * - 청크 사이에 pause-ms만큼 쉬고, 샤드 커넥션 풀에 대기 스레드가 있으면 없어질 때까지 backoff-ms 단위로 양보한다
+ */
+@Slf4j
+@Service
+public class PortfolioReconciliationService {
+
+    private static final int MAX_DRIFT_SAMPLES = 100;
+
+    private static final String USER_ID_PAGE_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String PORTFOLIO_RANGE_SQL = """
+            SELECT p.user_id, p.stock_id, p.quantity, p.average_price
+            FROM portfolios p
+            WHERE p.user_id BETWEEN ? AND ?
+            """;
+
+    private static final String TRANSACTION_RANGE_SQL = """
+            SELECT t.id, t.user_id, t.stock_id, t.type, t.quantity, t.price
+            FROM transactions t
+            WHERE t.user_id BETWEEN ? AND ?
+            ORDER BY t.user_id, t.stock_id, t.transaction_date, t.id
+            """;
+
+    private static final String INSERT_DRIFT_SQL = """
+            INSERT INTO portfolio_drifts (run_id, user_id, stock_id, drift_type, portfolio_quantity, expected_quantity,
+                                          portfolio_average_price, expected_average_price, detected_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private final ShardRouter shardRouter;
+    private final TransactionArchiveService transactionArchiveService;
+    private final int chunkSize;
+    private final int workerCount;
+    private final long pauseMillis;
+    private final long backoffMillis;
+    private final long recheckDelayMillis;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private volatile Run last;
+
+    public PortfolioReconciliationService(ShardRouter shardRouter,
+                                          TransactionArchiveService transactionArchiveService,
+                                          @Value("${stock.reconciliation.chunk-size:500}") int chunkSize,
+                                          @Value("${stock.reconciliation.workers:2}") int workerCount,
+                                          @Value("${stock.reconciliation.pause-ms:20}") long pauseMillis,
+                                          @Value("${stock.reconciliation.backoff-ms:200}") long backoffMillis,
+                                          @Value("${stock.reconciliation.recheck-delay-ms:500}") long recheckDelayMillis) {
+        this.shardRouter = shardRouter;
+        this.transactionArchiveService = transactionArchiveService;
+        this.chunkSize = chunkSize;
+        this.workerCount = workerCount;
+        this.pauseMillis = pauseMillis;
+        this.backoffMillis = backoffMillis;
+        this.recheckDelayMillis = recheckDelayMillis;
+    }
+
+    /**
+     * 백그라운드 스레드에서 점검을 시작하고 바로 반환한다. 동시에 하나만 실행된다.
+     */
+    public ReconciliationReportDto start() {
+        Run run = begin();
+        Thread.ofPlatform()
+                .name("reconcile-" + run.runId.substring(0, 8))
+                .daemon()
+                .start(() -> execute(run));
+        return run.toDto();
+    }
+
+    @Scheduled(cron = "${stock.reconciliation.cron:-}")
+    public void reconcileScheduled() {
+        Run run;
+        try {
+            run = begin();
+        } catch (RuntimeException e) {
+            log.warn("[RECONCILE] 이전 점검이 아직 실행 중이라 건너뜁니다: {}", e.getMessage());
+            return;
+        }
+        execute(run);
+    }
+
+    /**
+     * 실행 중인 점검이 있으면 그 진행 상황을, 없으면 마지막 점검 결과를 돌려준다.
+     */
+    public ReconciliationReportDto getReport() {
+        Run run = current.get();
+        if (run == null) {
+            run = last;
+        }
+        return run == null ? null : run.toDto();
+    }
+
+    private Run begin() {
+        Run run = new Run(UUID.randomUUID().toString());
+        if (!current.compareAndSet(null, run)) {
+            throw new RuntimeException("이미 실행 중인 정합성 점검이 있습니다: " + current.get().runId);
+        }
+        return run;
+    }
+
+    private void execute(Run run) {
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("reconcile-worker-", 0).daemon().factory());
+        // 조회한 청크가 워커보다 너무 앞서 쌓이지 않도록 제출 수를 제한한다
+        Semaphore inFlight = new Semaphore(workerCount * 2);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int s = shard;
+                long afterId = 0L;
+                while (true) {
+                    List<Long> userIds = shardRouter.jdbc(s).queryForList(USER_ID_PAGE_SQL, Long.class, afterId, chunkSize);
+                    if (userIds.isEmpty()) {
+                        break;
+                    }
+                    afterId = userIds.get(userIds.size() - 1);
+
+                    inFlight.acquire();
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            reconcileChunk(run, s, userIds);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, workers));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+            run.status = "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            workers.shutdownNow();
+            run.finish();
+            last = run;
+            current.set(null);
+            log.info("[RECONCILE] run={} status={} users={} positions={} transactions={} drifts={} throttledMs={} elapsedMs={}",
+                    run.runId, run.status, run.usersScanned.sum(), run.positionsChecked.sum(),
+                    run.transactionsScanned.sum(), run.driftCount.sum(), run.throttledMillis.sum(), run.elapsedMillis());
+        }
+    }
+
+    private void reconcileChunk(Run run, int shard, List<Long> userIds) {
+        throttle(run, shard);
+
+        JdbcTemplate jdbc = shardRouter.jdbc(shard);
+        List<Drift> suspects = compare(jdbc, userIds, run);
+        run.usersScanned.add(userIds.size());
+        if (suspects.isEmpty()) {
+            return;
+        }
+
+        sleep(recheckDelayMillis);
+        List<Drift> confirmed = new ArrayList<>();
+        for (Long userId : suspects.stream().map(Drift::userId).distinct().toList()) {
+            Set<Long> suspectStocks = suspects.stream()
+                    .filter(d -> d.userId() == userId)
+                    .map(Drift::stockId)
+                    .collect(Collectors.toSet());
+            compare(jdbc, List.of(userId), null).stream()
+                    .filter(d -> suspectStocks.contains(d.stockId()))
+                    .forEach(confirmed::add);
+        }
+        if (confirmed.isEmpty()) {
+            return;
+        }
+
+        jdbc.batchUpdate(INSERT_DRIFT_SQL, confirmed.stream()
+                .map(d -> new Object[]{run.runId, d.userId(), d.stockId(), d.type().name(), d.portfolioQuantity(),
+                        d.expectedQuantity(), d.portfolioAveragePrice(), d.expectedAveragePrice()})
+                .toList());
+        run.driftCount.add(confirmed.size());
+        for (Drift drift : confirmed) {
+            run.addSample(drift);
+        }
+    }
+
+    /**
+     * userIds(오름차순) 범위의 포트폴리오와 거래 재생 결과를 비교한다. run이 null이면(재확인) 지표를 세지 않는다.
+     */
+    private List<Drift> compare(JdbcTemplate jdbc, List<Long> userIds, Run run) {
+        long fromId = userIds.get(0);
+        long toId = userIds.get(userIds.size() - 1);
+
+        Map<PositionKey, long[]> actual = new HashMap<>();
+        jdbc.query(PORTFOLIO_RANGE_SQL, (ResultSet rs) -> {
+            actual.put(new PositionKey(rs.getLong("user_id"), rs.getLong("stock_id")),
+                    new long[]{rs.getLong("quantity"), rs.getLong("average_price")});
+        }, fromId, toId);
+
+        ChunkReplay replay = new ChunkReplay(loadArchived(userIds));
+        jdbc.query(TRANSACTION_RANGE_SQL, replay, fromId, toId);
+        replay.finish();
+        Map<PositionKey, long[]> expected = replay.expected;
+
+        Set<PositionKey> keys = new HashSet<>(actual.keySet());
+        keys.addAll(expected.keySet());
+
+        List<Drift> drifts = new ArrayList<>();
+        for (PositionKey key : keys) {
+            long[] a = actual.get(key);
+            long[] e = expected.getOrDefault(key, new long[]{0L, 0L});
+            DriftType type = null;
+            if (a == null) {
+                type = DriftType.MISSING_PORTFOLIO;
+            } else if (!expected.containsKey(key)) {
+                type = DriftType.ORPHAN_PORTFOLIO;
+            } else if (a[0] != e[0]) {
+                type = DriftType.QUANTITY;
+            } else if (a[1] != e[1]) {
+                type = DriftType.AVERAGE_PRICE;
+            }
+            if (type != null) {
+                drifts.add(new Drift(key.userId(), key.stockId(), type,
+                        a == null ? null : a[0], e[0], a == null ? null : a[1], e[1]));
+            }
+        }
+
+        if (run != null) {
+            run.positionsChecked.add(keys.size());
+            run.transactionsScanned.add(replay.scanned);
+        }
+        return drifts;
+    }
+
+    // 아카이브된 거래는 테이블에 남은 거래보다 오래된 것이므로 (사용자, 종목)별로 먼저 재생한다
+    private Map<PositionKey, List<ArchivedTransaction>> loadArchived(List<Long> userIds) {
+        if (!transactionArchiveService.hasArchivedData()) {
+            return Collections.emptyMap();
+        }
+        Map<PositionKey, List<ArchivedTransaction>> archived = new HashMap<>();
+        for (Long userId : userIds) {
+            for (ArchivedTransaction t : transactionArchiveService.findByUserId(userId)) {
+                archived.computeIfAbsent(new PositionKey(t.userId(), t.stockId()), k -> new ArrayList<>()).add(t);
+            }
+        }
+        Comparator<ArchivedTransaction> oldestFirst = Comparator
+                .comparing(ArchivedTransaction::transactionDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(ArchivedTransaction::id);
+        archived.values().forEach(list -> list.sort(oldestFirst));
+        return archived;
+    }
+
+    // 라이브 요청이 커넥션을 기다리고 있으면 양보한다
+    private void throttle(Run run, int shard) {
+        long startNanos = System.nanoTime();
+        sleep(pauseMillis);
+        while (shardRouter.threadsAwaitingConnection(shard) > 0) {
+            sleep(backoffMillis);
+        }
+        run.throttledMillis.add((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("정합성 점검이 중단되었습니다.", e);
+        }
+    }
+
+    /**
+     * (user_id, stock_id, 거래일) 순으로 정렬된 거래를 받아 포지션별 기대 보유 상태를 만든다.
+     */
+    private static final class ChunkReplay implements RowCallbackHandler {
+
+        private final Map<PositionKey, List<ArchivedTransaction>> archived;
+        private final Map<PositionKey, long[]> expected = new HashMap<>();
+        private final PositionReplay position = new PositionReplay();
+        private final Set<Long> archivedIds = new HashSet<>();
+
+        private PositionKey key;
+        private long scanned;
+
+        ChunkReplay(Map<PositionKey, List<ArchivedTransaction>> archived) {
+            this.archived = new HashMap<>(archived);
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            PositionKey rowKey = new PositionKey(rs.getLong("user_id"), rs.getLong("stock_id"));
+            if (!rowKey.equals(key)) {
+                flush();
+                start(rowKey, archived.remove(rowKey));
+            }
+            // 아카이브 도중 실패하면 같은 거래가 양쪽에 남아 있을 수 있다
+            if (archivedIds.contains(rs.getLong("id"))) {
+                return;
+            }
+            position.apply("BUY".equals(rs.getString("type")), rs.getLong("quantity"), rs.getLong("price"));
+            scanned++;
+        }
+
+        void finish() {
+            flush();
+            // 테이블에는 거래가 남아 있지 않고 아카이브에만 있는 포지션
+            for (Map.Entry<PositionKey, List<ArchivedTransaction>> entry : archived.entrySet()) {
+                start(entry.getKey(), entry.getValue());
+                flush();
+            }
+            archived.clear();
+            key = null;
+        }
+
+        private void start(PositionKey newKey, List<ArchivedTransaction> older) {
+            key = newKey;
+            position.reset();
+            archivedIds.clear();
+            if (older == null) {
+                return;
+            }
+            for (ArchivedTransaction t : older) {
+                position.apply(t.type() == TransactionType.BUY, t.quantity(), t.price());
+                archivedIds.add(t.id());
+                scanned++;
+            }
+        }
+
+        private void flush() {
+            if (key != null && position.quantity() > 0L) {
+                expected.put(key, new long[]{position.quantity(), position.averagePrice()});
+            }
+        }
+    }
+
+    private record PositionKey(long userId, long stockId) {
+    }
+
+    private record Drift(long userId, long stockId, DriftType type,
+                         Long portfolioQuantity, long expectedQuantity,
+                         Long portfolioAveragePrice, long expectedAveragePrice) {
+
+        @Override
+        public String toString() {
+            return "userId=" + userId + " stockId=" + stockId + " " + type
+                    + " portfolio=" + portfolioQuantity + "@" + portfolioAveragePrice
+                    + " expected=" + expectedQuantity + "@" + expectedAveragePrice;
+        }
+    }
+
+    private static final class Run {
+
+        private final String runId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+
+        private final LongAdder usersScanned = new LongAdder();
+        private final LongAdder positionsChecked = new LongAdder();
+        private final LongAdder transactionsScanned = new LongAdder();
+        private final LongAdder driftCount = new LongAdder();
+        private final LongAdder throttledMillis = new LongAdder();
+        private final List<String> samples = new ArrayList<>();
+
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+
+        Run(String runId) {
+            this.runId = runId;
+        }
+
+        void fail(Exception e) {
+            status = "FAILED";
+            error = e.getMessage();
+            log.error("[RECONCILE] run={} 실패", runId, e);
+        }
+
+        void finish() {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized void addSample(Drift drift) {
+            if (samples.size() < MAX_DRIFT_SAMPLES) {
+                samples.add(drift.toString());
+            }
+        }
+
+        long elapsedMillis() {
+            long end = finishedAt == null ? System.nanoTime() : finishedNanos;
+            return (end - startNanos) / 1_000_000;
+        }
+
+        synchronized ReconciliationReportDto toDto() {
+            return ReconciliationReportDto.builder()
+                    .runId(runId)
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .usersScanned(usersScanned.sum())
+                    .positionsChecked(positionsChecked.sum())
+                    .transactionsScanned(transactionsScanned.sum())
+                    .driftCount(driftCount.sum())
+                    .throttledMs(throttledMillis.sum())
+                    .elapsedMs(elapsedMillis())
+                    .error(error)
+                    .drifts(List.copyOf(samples))
+                    .build();
+        }
+    }
+}
@@ -4,12 +4,12 @@ import com.skala.stock.dto.PortfolioDto;
 import com.skala.stock.entity.Portfolio;
 import com.skala.stock.entity.Stock;
 import com.skala.stock.repository.PortfolioRepository;
+import com.skala.stock.sharding.ShardKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,16 +18,13 @@ public class PortfolioService {
 
     private final PortfolioRepository portfolioRepository;
 
-    public List<PortfolioDto> getUserPortfolio(Long userId) {
-        List<Portfolio> portfolios = portfolioRepository.findByUserId(userId);
-        return portfolios.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public List<PortfolioDto> getUserPortfolio(@ShardKey Long userId) {
+        return portfolioRepository.findDtosByUserId(userId);
     }
 
     // 추가된 메서드
     @Transactional(readOnly = true)
-    public PortfolioDto getUserStockPortfolio(Long userId, Long stockId) {
+    public PortfolioDto getUserStockPortfolio(@ShardKey Long userId, Long stockId) {
         Portfolio portfolio = portfolioRepository.findByUserIdAndStockId(userId, stockId)
                 .orElseThrow(() -> new RuntimeException("포트폴리오를 찾을 수 없습니다: 사용자 ID " + userId + ", 주식 ID " + stockId));
         return convertToDto(portfolio);
@@ -0,0 +1,37 @@
+package com.skala.stock.service;
+
+/**
+ * 거래를 시간순으로 하나씩 적용해 (사용자, 종목) 보유 상태를 다시 계산한다.
+ *
+ * TransactionService.updatePortfolio와 같은 규칙을 따른다.
+ * - 매수: 가중 평균으로 평균단가 갱신 (보유분이 없으면 체결가)
+ * - 매도: 보유 수량에서 차감, 0 이하가 되면 포지션 제거. 보유분이 없을 때의 매도는 무시
+ */
+final class PositionReplay {
+
+    private long quantity;
+    private long averagePrice;
+
+    void reset() {
+        quantity = 0L;
+        averagePrice = 0L;
+    }
+
+    void apply(boolean buy, long qty, long price) {
+        if (buy) {
+            long totalQuantity = quantity + qty;
+            averagePrice = quantity == 0L ? price : (quantity * averagePrice + qty * price) / totalQuantity;
+            quantity = totalQuantity;
+        } else if (quantity > 0L) {
+            quantity = Math.max(0L, quantity - qty);
+        }
+    }
+
+    long quantity() {
+        return quantity;
+    }
+
+    long averagePrice() {
+        return averagePrice;
+    }
+}
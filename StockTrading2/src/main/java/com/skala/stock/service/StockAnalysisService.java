@@ -14,6 +14,7 @@ import com.skala.stock.mapper.TransactionStatisticsDto;
 import com.skala.stock.repository.PortfolioRepository;
 import com.skala.stock.repository.TransactionRepository;
 import com.skala.stock.repository.UserRepository;
+import com.skala.stock.sharding.ShardKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,7 +35,7 @@ public class StockAnalysisService {
     private final TransactionService transactionService;
 
     // 1) 포트폴리오 평가 손익
-    public PortfolioEvaluationDto getPortfolioEvaluation(Long userId) {
+    public PortfolioEvaluationDto getPortfolioEvaluation(@ShardKey Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
@@ -65,7 +66,7 @@ public class StockAnalysisService {
     }
 
     // 2) 거래 내역 상세 조회(요약 포함)
-    public TransactionDetailResponseDto getTransactionDetails(Long userId) {
+    public TransactionDetailResponseDto getTransactionDetails(@ShardKey Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
@@ -92,14 +93,14 @@ public class StockAnalysisService {
     }
 
     // 3) 특정 주식 거래 내역 조회
-    public List<TransactionDto> getStockTransactions(Long userId, Long stockId) {
+    public List<TransactionDto> getStockTransactions(@ShardKey Long userId, Long stockId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
         return transactionService.getUserStockTransactions(userId, stockId);
     }
 
     // 4) 총 자산 조회(현금 + 보유주식 평가금액)
-    public AssetSummaryDto getTotalAssets(Long userId) {
+    public AssetSummaryDto getTotalAssets(@ShardKey Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
@@ -119,7 +120,7 @@ public class StockAnalysisService {
     }
 
     // 5) 총 수익률 조회(보유 주식 원가 대비)
-    public ReturnRateDto getTotalReturnRate(Long userId) {
+    public ReturnRateDto getTotalReturnRate(@ShardKey Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
@@ -146,7 +147,7 @@ public class StockAnalysisService {
     }
 
     // 6) 거래 통계 조회(종목별 집계)
-    public List<TransactionStatisticsDto> getTradeStatistics(Long userId) {
+    public List<TransactionStatisticsDto> getTradeStatistics(@ShardKey Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
@@ -172,7 +173,7 @@ public class StockAnalysisService {
     }
 
     // 7) 일별 거래 내역 조회(일자별 집계)
-    public List<DailyTradeSummaryDto> getDailyTrades(Long userId) {
+    public List<DailyTradeSummaryDto> getDailyTrades(@ShardKey Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
 
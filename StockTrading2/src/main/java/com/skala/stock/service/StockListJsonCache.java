@@ -0,0 +1,42 @@
+package com.skala.stock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 전체 주식 목록 응답을 직렬화된 JSON 바이트로 보관한다.
+ *
+ * 목록은 자주 폴링되지만 거의 바뀌지 않으므로, 버전이 같으면 조회/직렬화 없이 바이트를 그대로 돌려준다.
+ * 버전은 조회 전에 읽어서 저장한다. 그 사이 변경이 생기면 다음 요청에서 다시 만든다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockListJsonCache {
+
+    private final StockService stockService;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Entry cached;
+
+    public byte[] getBody() {
+        long version = dataVersionService.getStockVersion();
+        Entry entry = cached;
+        if (entry != null && entry.version() == version) {
+            return entry.body();
+        }
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(stockService.getAllStocks());
+            cached = new Entry(version, body);
+            return body;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("주식 목록 직렬화에 실패했습니다", e);
+        }
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+}
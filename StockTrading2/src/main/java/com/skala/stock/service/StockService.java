@@ -3,19 +3,32 @@ package com.skala.stock.service;
 import com.skala.stock.dto.StockDto;
 import com.skala.stock.entity.Stock;
 import com.skala.stock.repository.StockRepository;
+import com.skala.stock.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class StockService {
 
+    // 주식은 모든 샤드가 같이 참조하는 데이터라 샤드 0에 쓰고 나머지 샤드에 복제한다.
+    // 따라서 조회는 어느 샤드 하나만 읽으면 되고 scatter-gather가 필요 없다.
+    private static final String REPLICATE_INSERT_SQL =
+            "INSERT INTO stocks (id, code, name, current_price, previous_price, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String REPLICATE_UPDATE_SQL =
+            "UPDATE stocks SET code = ?, name = ?, current_price = ?, previous_price = ?, updated_at = ? WHERE id = ?";
+    private static final String REPLICATE_DELETE_SQL = "DELETE FROM stocks WHERE id = ?";
+    // 보유(portfolios)/거래(transactions)는 사용자 샤드에 있고 stocks를 FK로 참조한다
+    private static final String REFERENCE_COUNT_SQL =
+            "SELECT (SELECT COUNT(*) FROM portfolios WHERE stock_id = ?) + (SELECT COUNT(*) FROM transactions WHERE stock_id = ?)";
+
     private final StockRepository stockRepository;
+    private final DataVersionService dataVersionService;
+    private final ShardRouter shardRouter;
 
     @Transactional
     public StockDto createStock(StockDto stockDto) {
@@ -31,6 +44,10 @@ public class StockService {
                 .build();
 
         Stock savedStock = stockRepository.save(stock);
+        shardRouter.replicateAfterCommit(REPLICATE_INSERT_SQL,
+                savedStock.getId(), savedStock.getCode(), savedStock.getName(), savedStock.getCurrentPrice(),
+                savedStock.getPreviousPrice(), savedStock.getCreatedAt(), savedStock.getUpdatedAt());
+        dataVersionService.markStocksChanged();
         return convertToDto(savedStock);
     }
 
@@ -41,9 +58,7 @@ public class StockService {
     }
 
     public List<StockDto> getAllStocks() {
-        return stockRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return stockRepository.findAllAsDto();
     }
     
     // 추가된 메서드
@@ -61,16 +76,40 @@ public class StockService {
         stock.setCurrentPrice(stockDto.getCurrentPrice());
         stock.setPreviousPrice(stockDto.getPreviousPrice());
 
-        Stock updatedStock = stockRepository.save(stock);
+        Stock updatedStock = stockRepository.saveAndFlush(stock);
+        shardRouter.replicateAfterCommit(REPLICATE_UPDATE_SQL,
+                updatedStock.getCode(), updatedStock.getName(), updatedStock.getCurrentPrice(),
+                updatedStock.getPreviousPrice(), updatedStock.getUpdatedAt(), updatedStock.getId());
+        dataVersionService.markStocksChanged();
         return convertToDto(updatedStock);
     }
     
+    // 단일가 매매 체결가를 현재가로 반영한다
+    @Transactional
+    public void updateCurrentPrice(Long id, Long price) {
+        Stock stock = stockRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("주식을 찾을 수 없습니다: " + id));
+        stock.setCurrentPrice(price);
+
+        Stock updatedStock = stockRepository.saveAndFlush(stock);
+        shardRouter.replicateAfterCommit(REPLICATE_UPDATE_SQL,
+                updatedStock.getCode(), updatedStock.getName(), updatedStock.getCurrentPrice(),
+                updatedStock.getPreviousPrice(), updatedStock.getUpdatedAt(), updatedStock.getId());
+        dataVersionService.markStocksChanged();
+    }
+
     @Transactional
     public void deleteStock(Long id) {
         if (!stockRepository.existsById(id)) {
             throw new RuntimeException("주식을 찾을 수 없습니다: " + id);
         }
+        // 샤드 0만 보고 지우면 다른 샤드의 복제 DELETE가 FK에 걸려 샤드 0에서만 사라진다. 지우기 전에 모든 샤드를 확인한다
+        if (isReferencedOnAnyShard(id)) {
+            throw new RuntimeException("보유 또는 거래 내역이 있는 주식은 삭제할 수 없습니다: " + id);
+        }
         stockRepository.deleteById(id);
+        shardRouter.replicateAfterCommit(REPLICATE_DELETE_SQL, id);
+        dataVersionService.markStocksChanged();
     }   
 
 
@@ -83,6 +122,14 @@ public class StockService {
 
     
 
+    // 샤드별 커넥션으로 직접 조회한다 (진행 중인 트랜잭션의 샤드와 무관)
+    private boolean isReferencedOnAnyShard(Long id) {
+        return shardRouter.anyShardMatches(shard -> {
+            Long count = shardRouter.jdbc(shard).queryForObject(REFERENCE_COUNT_SQL, Long.class, id, id);
+            return count != null && count > 0;
+        });
+    }
+
     private StockDto convertToDto(Stock stock) {
         return StockDto.builder()
                 .id(stock.getId())
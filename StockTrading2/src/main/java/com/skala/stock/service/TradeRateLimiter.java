@@ -0,0 +1,113 @@
+package com.skala.stock.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 사용자별 토큰 버킷 기반 거래 요청 제한기다.
+ *
+ * 버킷 하나를 "다음 토큰이 채워질 이론상 시각(TAT, nanoTime)" 하나로 표현한다(GCRA).
+ * - 요청 1건 = TAT를 emissionInterval 만큼 뒤로 민다
+ * - TAT가 현재 시각보다 burst * emissionInterval 이상 앞서 있으면 거절한다
+ * 상태가 long 하나라서 락 없이 CAS 한 번으로 판단하고, 판단 중 객체를 만들지 않는다.
+ *
+ * 유휴 버킷(TAT가 이미 지나서 가득 찬 상태)은 주기적으로 제거한다.
+ * 제거 직후 같은 사용자의 요청이 옛 버킷을 갱신하는 경합이 있으면 최대 한 건 더 허용될 수 있다.
+ */
+@Service
+public class TradeRateLimiter {
+
+    private final ConcurrentHashMap<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private final int burst;
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final long idleTimeoutNanos;
+    private final int maxBuckets;
+
+    public TradeRateLimiter(@Value("${stock.rate-limit.trade.burst:10}") int burst,
+                            @Value("${stock.rate-limit.trade.refill-per-second:5}") double refillPerSecond,
+                            @Value("${stock.rate-limit.trade.idle-timeout-seconds:60}") long idleTimeoutSeconds,
+                            @Value("${stock.rate-limit.trade.max-buckets:100000}") int maxBuckets) {
+        if (burst <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("burst와 refill-per-second는 0보다 커야 합니다.");
+        }
+        this.burst = burst;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * 토큰 하나를 소비한다.
+     *
+     * @return 0 이상이면 허용(남은 토큰 수), 음수면 거절이며 절댓값이 재시도까지 남은 나노초다
+     */
+    public long tryAcquire(Long userId) {
+        AtomicLong bucket = buckets.get(userId);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evictIdleBuckets();
+            }
+            bucket = buckets.computeIfAbsent(userId, id -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long start = (tat == Long.MIN_VALUE || tat - now < 0) ? now : tat;
+            long newTat = start + emissionIntervalNanos;
+            long ahead = newTat - now;
+
+            if (ahead > burstWindowNanos) {
+                rejected.increment();
+                return -(ahead - burstWindowNanos);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                allowed.increment();
+                return (burstWindowNanos - ahead) / emissionIntervalNanos;
+            }
+        }
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.rate-limit.trade.sweep-interval-ms:30000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, AtomicLong> entry : buckets.entrySet()) {
+            long tat = entry.getValue().get();
+            if (tat == Long.MIN_VALUE || now - tat > idleTimeoutNanos) {
+                if (buckets.remove(entry.getKey(), entry.getValue())) {
+                    evicted.increment();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("burst", burst);
+        metrics.put("refillPerSecond", (double) TimeUnit.SECONDS.toNanos(1) / emissionIntervalNanos);
+        metrics.put("allowed", allowed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("activeBuckets", buckets.size());
+        metrics.put("evictedBuckets", evicted.sum());
+        return metrics;
+    }
+}
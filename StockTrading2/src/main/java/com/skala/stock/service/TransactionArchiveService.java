@@ -0,0 +1,466 @@
+package com.skala.stock.service;
+
+import com.skala.stock.entity.Transaction.TransactionType;
+import com.skala.stock.sharding.ShardContext;
+import com.skala.stock.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * 오래된 거래 내역을 transactions 테이블에서 불변 세그먼트 파일로 옮겨 보관한다(콜드 스토리지).
+ *
+ * 세그먼트 파일 구조 (모두 big-endian):
+ * - 데이터: 사용자별 블록. 블록 = 거래 레코드(RECORD_SIZE 바이트 고정)를 거래일 내림차순으로 이어 붙여 Deflate 압축한 것
+ * - 인덱스: userId 오름차순으로 (userId, 블록 오프셋, 압축 길이, 레코드 수)
+ * - 푸터: 인덱스 오프셋, 사용자 수, MAGIC
+ *
+ * 세그먼트는 읽기 전용으로 mmap 해두고 userId 이진 탐색 → 해당 블록만 압축 해제해서 읽는다.
+ * 세그먼트는 테이블 삭제 트랜잭션이 커밋된 뒤에만 조회 대상에 올리고, 롤백되면 파일을 지운다.
+ * 그래도 커밋 직전에 프로세스가 죽으면 같은 거래가 테이블과 세그먼트, 또는 두 세그먼트에 남을 수 있으므로
+ * 세그먼트끼리는 여기서, 테이블과는 조회하는 쪽(TransactionService)에서 id 기준으로 중복을 제거한다.
+ */
+@Slf4j
+@Service
+public class TransactionArchiveService {
+
+    private static final int MAGIC = 0x54534547; // "TSEG"
+    private static final int FOOTER_SIZE = 8 + 4 + 4;
+    private static final int INDEX_ENTRY_SIZE = 8 + 4 + 4 + 4;
+    private static final int RECORD_SIZE = 8 + 8 + 1 + 8 + 8 + 8 + 8 + 8;
+    private static final String SEGMENT_SUFFIX = ".tseg";
+
+    private static final String SELECT_ARCHIVE_SQL = """
+            SELECT t.id, t.user_id, t.stock_id, t.type, t.quantity, t.price, t.total_amount,
+                   t.transaction_date, t.created_at
+            FROM transactions t
+            WHERE t.transaction_date < ?
+            ORDER BY t.user_id, t.transaction_date DESC, t.id DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Path archiveDir;
+    private final long retentionDays;
+    private final boolean clearOnStartup;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    public TransactionArchiveService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     ShardRouter shardRouter,
+                                     @Value("${stock.archive.dir:./archive}") String archiveDir,
+                                     @Value("${stock.archive.retention-days:90}") long retentionDays,
+                                     @Value("${stock.archive.clear-on-startup:true}") boolean clearOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.archiveDir = Paths.get(archiveDir);
+        this.retentionDays = retentionDays;
+        this.clearOnStartup = clearOnStartup;
+    }
+
+    /**
+     * 아카이브된 거래 한 건. 조회 시 TransactionDto로 변환된다.
+     */
+    public record ArchivedTransaction(long id, long userId, long stockId, TransactionType type,
+                                      long quantity, long price, long totalAmount,
+                                      LocalDateTime transactionDate, LocalDateTime createdAt) {
+    }
+
+    @PostConstruct
+    void openSegments() throws IOException {
+        Files.createDirectories(archiveDir);
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                // 인메모리 DB(create-drop)는 재시작하면 id가 다시 시작되므로 이전 세그먼트를 쓸 수 없다
+                if (clearOnStartup) {
+                    Files.delete(file);
+                } else {
+                    segments.add(Segment.open(file));
+                }
+            }
+        }
+        log.info("[ARCHIVE] opened {} segment(s) from {}", segments.size(), archiveDir.toAbsolutePath());
+    }
+
+    public boolean hasArchivedData() {
+        return !segments.isEmpty();
+    }
+
+    @Scheduled(cron = "${stock.archive.cron:-}")
+    public void archiveByRetention() {
+        archive(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * cutoff 이전 거래를 새 세그먼트로 옮기고 테이블에서 삭제한다.
+     * 샤드 모드에서는 샤드마다 별도 세그먼트를 만든다 (userId 구간이 겹치지 않으므로 조회는 그대로 합치면 된다).
+     */
+    public synchronized Map<String, Object> archive(LocalDateTime cutoff) {
+        long startNanos = System.nanoTime();
+
+        Map<String, Object> result;
+        if (!shardRouter.isSharded()) {
+            result = new LinkedHashMap<>(archiveShard(0, cutoff));
+        } else {
+            List<Map<String, Object>> shards = new ArrayList<>();
+            long archivedRows = 0;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                int s = shard;
+                Map<String, Object> r = new LinkedHashMap<>(ShardContext.call(s, () -> archiveShard(s, cutoff)));
+                r.put("shard", s);
+                archivedRows += (long) r.get("archivedRows");
+                shards.add(r);
+            }
+            result = new LinkedHashMap<>();
+            result.put("archivedRows", archivedRows);
+            result.put("shards", shards);
+        }
+
+        result.put("cutoff", cutoff.toString());
+        result.put("elapsedMs", (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("[ARCHIVE] {}", result);
+        return result;
+    }
+
+    private Map<String, Object> archiveShard(int shard, LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            Path tmp = archiveDir.resolve("segment-" + System.currentTimeMillis() + "-s" + shard + SEGMENT_SUFFIX + ".tmp");
+            SegmentWriter writer = writeSegment(tmp, cutoff);
+
+            if (writer.recordCount == 0) {
+                deleteQuietly(tmp);
+                return Map.of("archivedRows", 0L);
+            }
+
+            Path target = Paths.get(tmp.toString().substring(0, tmp.toString().length() - ".tmp".length()));
+            Segment segment;
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                segment = Segment.open(target);
+            } catch (IOException e) {
+                deleteQuietly(tmp);
+                deleteQuietly(target);
+                throw new RuntimeException("아카이브 세그먼트를 열 수 없습니다: " + target, e);
+            }
+            // 삭제가 커밋된 뒤에만 조회 대상에 올린다. 롤백되면 행이 테이블에 그대로 있으므로 파일을 버린다
+            // (남겨 두면 다음 실행이 같은 행을 다른 세그먼트에 또 쓴다)
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    if (completionStatus == STATUS_COMMITTED) {
+                        segments.add(segment);
+                    } else {
+                        deleteQuietly(target);
+                    }
+                }
+            });
+
+            // 세그먼트가 디스크에 확정된 뒤에만 테이블에서 지운다
+            long[] ids = writer.ids();
+            List<Object[]> batch = new ArrayList<>(1000);
+            for (long id : ids) {
+                batch.add(new Object[]{id});
+                if (batch.size() == 1000) {
+                    jdbcTemplate.batchUpdate("DELETE FROM transactions WHERE id = ?", batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM transactions WHERE id = ?", batch);
+            }
+
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("archivedRows", (long) ids.length);
+            r.put("users", writer.userCount);
+            r.put("segment", target.getFileName().toString());
+            r.put("segmentBytes", writer.bytesWritten);
+            return r;
+        });
+    }
+
+    private SegmentWriter writeSegment(Path tmp, LocalDateTime cutoff) {
+        try {
+            SegmentWriter writer = new SegmentWriter(tmp);
+            jdbcTemplate.query(SELECT_ARCHIVE_SQL, (ResultSet rs) -> writer.append(rs), Timestamp.valueOf(cutoff));
+            writer.finish();
+            return writer;
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeException("아카이브 세그먼트를 쓸 수 없습니다: " + tmp, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+    }
+
+    public List<ArchivedTransaction> findByUserId(long userId) {
+        List<ArchivedTransaction> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.read(userId, result);
+        }
+        if (segments.size() > 1) {
+            // 여러 세그먼트에 같은 거래가 들어간 경우 먼저 만든 세그먼트 쪽을 남긴다
+            Set<Long> seen = new HashSet<>();
+            result.removeIf(t -> !seen.add(t.id()));
+        }
+        return result;
+    }
+
+    public List<ArchivedTransaction> findByUserIdAndStockId(long userId, long stockId) {
+        List<ArchivedTransaction> result = findByUserId(userId);
+        result.removeIf(t -> t.stockId() != stockId);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("segments", segments.size());
+        stats.put("users", segments.stream().mapToLong(s -> s.userIds.length).sum());
+        stats.put("records", segments.stream().mapToLong(Segment::recordCount).sum());
+        stats.put("bytes", segments.stream().mapToLong(s -> s.buffer.capacity()).sum());
+        return stats;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 임시 파일 정리는 실패해도 다음 실행에 영향이 없다
+        }
+    }
+
+    private static long toEpochMillis(Timestamp ts) {
+        return ts == null ? Long.MIN_VALUE : ts.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    /**
+     * user_id 순으로 정렬된 ResultSet을 받아 사용자별 블록을 압축해서 써 내려간다.
+     * 메모리에는 현재 사용자 블록, 인덱스, 삭제할 id 목록만 둔다.
+     */
+    private static final class SegmentWriter {
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        private final DataOutputStream index = new DataOutputStream(indexBytes);
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+        private final DataOutputStream block = new DataOutputStream(blockBytes);
+
+        private long[] ids = new long[1024];
+        private int recordCount;
+        private int userCount;
+        private long bytesWritten;
+
+        private long currentUserId = Long.MIN_VALUE;
+        private int currentUserRecords;
+
+        SegmentWriter(Path path) throws IOException {
+            OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+        }
+
+        void append(ResultSet rs) throws SQLException {
+            try {
+                long userId = rs.getLong("user_id");
+                if (userId != currentUserId) {
+                    flushBlock();
+                    currentUserId = userId;
+                }
+
+                long id = rs.getLong("id");
+                block.writeLong(id);
+                block.writeLong(rs.getLong("stock_id"));
+                block.writeByte("BUY".equals(rs.getString("type")) ? 0 : 1);
+                block.writeLong(rs.getLong("quantity"));
+                block.writeLong(rs.getLong("price"));
+                block.writeLong(rs.getLong("total_amount"));
+                block.writeLong(toEpochMillis(rs.getTimestamp("transaction_date")));
+                block.writeLong(toEpochMillis(rs.getTimestamp("created_at")));
+                currentUserRecords++;
+
+                if (recordCount == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[recordCount++] = id;
+            } catch (IOException e) {
+                throw new SQLException("세그먼트 블록 기록 실패", e);
+            }
+        }
+
+        void finish() throws IOException {
+            flushBlock();
+            long indexOffset = bytesWritten;
+            indexBytes.writeTo(out);
+            out.writeLong(indexOffset);
+            out.writeInt(userCount);
+            out.writeInt(MAGIC);
+            bytesWritten += indexBytes.size() + FOOTER_SIZE;
+            out.close();
+        }
+
+        long[] ids() {
+            return Arrays.copyOf(ids, recordCount);
+        }
+
+        private void flushBlock() throws IOException {
+            if (currentUserRecords == 0) {
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(blockBytes.size() / 2 + 64);
+            try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_SPEED))) {
+                blockBytes.writeTo(deflater);
+            }
+            if (bytesWritten + compressed.size() > Integer.MAX_VALUE) {
+                throw new IOException("세그먼트 하나의 크기는 2GB를 넘을 수 없습니다");
+            }
+
+            index.writeLong(currentUserId);
+            index.writeInt((int) bytesWritten);
+            index.writeInt(compressed.size());
+            index.writeInt(currentUserRecords);
+
+            compressed.writeTo(out);
+            bytesWritten += compressed.size();
+            userCount++;
+
+            blockBytes.reset();
+            currentUserRecords = 0;
+        }
+    }
+
+    /**
+     * mmap 된 읽기 전용 세그먼트. 인덱스는 열 때 배열로 풀어두고 블록만 필요할 때 압축 해제한다.
+     */
+    private static final class Segment {
+
+        private final MappedByteBuffer buffer;
+        private final long[] userIds;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int[] counts;
+
+        private Segment(MappedByteBuffer buffer, long[] userIds, int[] offsets, int[] lengths, int[] counts) {
+            this.buffer = buffer;
+            this.userIds = userIds;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.counts = counts;
+        }
+
+        static Segment open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int size = buffer.capacity();
+                if (size < FOOTER_SIZE || buffer.getInt(size - 4) != MAGIC) {
+                    throw new IOException("올바른 세그먼트 파일이 아닙니다: " + path);
+                }
+                int indexOffset = (int) buffer.getLong(size - FOOTER_SIZE);
+                int userCount = buffer.getInt(size - 8);
+
+                long[] userIds = new long[userCount];
+                int[] offsets = new int[userCount];
+                int[] lengths = new int[userCount];
+                int[] counts = new int[userCount];
+                for (int i = 0; i < userCount; i++) {
+                    int pos = indexOffset + i * INDEX_ENTRY_SIZE;
+                    userIds[i] = buffer.getLong(pos);
+                    offsets[i] = buffer.getInt(pos + 8);
+                    lengths[i] = buffer.getInt(pos + 12);
+                    counts[i] = buffer.getInt(pos + 16);
+                }
+                return new Segment(buffer, userIds, offsets, lengths, counts);
+            }
+        }
+
+        long recordCount() {
+            long total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        void read(long userId, List<ArchivedTransaction> sink) {
+            int i = Arrays.binarySearch(userIds, userId);
+            if (i < 0) {
+                return;
+            }
+
+            byte[] compressed = new byte[lengths[i]];
+            buffer.get(offsets[i], compressed);
+
+            byte[] raw = new byte[counts[i] * RECORD_SIZE];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int n = 0;
+                while (n < raw.length && !inflater.finished()) {
+                    n += inflater.inflate(raw, n, raw.length - n);
+                }
+            } catch (DataFormatException e) {
+                throw new RuntimeException("아카이브 블록이 손상되었습니다: userId " + userId, e);
+            } finally {
+                inflater.end();
+            }
+
+            ByteBuffer records = ByteBuffer.wrap(raw);
+            for (int r = 0; r < counts[i]; r++) {
+                long id = records.getLong();
+                long stockId = records.getLong();
+                TransactionType type = records.get() == 0 ? TransactionType.BUY : TransactionType.SELL;
+                long quantity = records.getLong();
+                long price = records.getLong();
+                long totalAmount = records.getLong();
+                LocalDateTime transactionDate = fromEpochMillis(records.getLong());
+                LocalDateTime createdAt = fromEpochMillis(records.getLong());
+                sink.add(new ArchivedTransaction(id, userId, stockId, type, quantity, price, totalAmount,
+                        transactionDate, createdAt));
+            }
+        }
+    }
+}
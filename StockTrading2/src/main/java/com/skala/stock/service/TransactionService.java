@@ -10,13 +10,21 @@ import com.skala.stock.repository.PortfolioRepository;
 import com.skala.stock.repository.StockRepository;
 import com.skala.stock.repository.TransactionRepository;
 import com.skala.stock.repository.UserRepository;
+import com.skala.stock.service.TransactionArchiveService.ArchivedTransaction;
+import com.skala.stock.sharding.ShardKey;
+import com.skala.stock.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,26 +36,32 @@ public class TransactionService {
     private final StockRepository stockRepository;
     private final UserRepository userRepository;
     private final PortfolioRepository portfolioRepository;
+    private final DataVersionService dataVersionService;
+    private final TransactionArchiveService transactionArchiveService;
+    private final ShardRouter shardRouter;
+    private final MarketSessionState marketSessionState;
 
+    // 최근 거래(테이블) + 아카이브 세그먼트를 합쳐 최신순으로 돌려준다
     @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
-    public List<TransactionDto> getUserTransactions(Long userId) {
+    public List<TransactionDto> getUserTransactions(@ShardKey Long userId) {
         List<Transaction> transactions = transactionRepository.findByUserIdOrderByTransactionDateDesc(userId);
-        return transactions.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return mergeWithArchive(userId, transactions, transactionArchiveService.findByUserId(userId));
     }
 
     // 추가된 메서드
 
-    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    // 거래 id만으로는 샤드를 알 수 없으므로 모든 샤드에 조회한다
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TransactionDto getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
+        return shardRouter.findFirst(shard -> transactionRepository.findById(id).map(this::convertToDto))
                 .orElseThrow(() -> new RuntimeException("거래 내역을 찾을 수 없습니다: " + id));
-        return convertToDto(transaction);
     }
 
     @Transactional
-    public TransactionDto tradeStock(Long stockId, Long userId, String type, Integer quantity) {
+    public TransactionDto tradeStock(Long stockId, @ShardKey Long userId, String type, Integer quantity) {
+        // 단일가 접수 시간이나 장 마감 이후에는 즉시 체결하지 않는다
+        marketSessionState.requireContinuous();
+
         if (stockId == null || userId == null) {
             throw new IllegalArgumentException("주식 ID와 사용자 ID는 필수입니다.");
         }
@@ -55,14 +69,27 @@ public class TransactionService {
         if (quantity == null || quantity <= 0) {
             throw new IllegalArgumentException("수량은 0보다 커야 합니다.");
         }
-        
+
+        return execute(stockId, userId, type, quantity, null);
+    }
+
+    /**
+     * 단일가 매매에서 배분된 수량을 경매 가격으로 체결한다.
+     */
+    @Transactional
+    public TransactionDto fillAuctionOrder(Long stockId, @ShardKey Long userId, String type, long quantity, long price) {
+        return execute(stockId, userId, type, quantity, price);
+    }
+
+    private TransactionDto execute(Long stockId, Long userId, String type, long quantity, Long auctionPrice) {
         Stock stock = stockRepository.findById(stockId)
                 .orElseThrow(() -> new RuntimeException("주식을 찾을 수 없습니다: " + stockId));
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + userId));
         
-        long totalAmount = stock.getCurrentPrice() * quantity;
+        long price = auctionPrice != null ? auctionPrice : stock.getCurrentPrice();
+        long totalAmount = price * quantity;
         
         // 매수인 경우 잔액 확인 및 차감
         if ("BUY".equalsIgnoreCase(type)) {
@@ -79,6 +106,7 @@ public class TransactionService {
                     .filter(t -> t.getStock().getId().equals(stockId))
                     .mapToLong(t -> TransactionType.BUY.equals(t.getType()) ? t.getQuantity() : -t.getQuantity())
                     .sum();
+            totalQuantity += archivedNetQuantity(userId, stockId, userTransactions);
             
             if (totalQuantity < quantity) {
                 throw new RuntimeException("보유 수량이 부족합니다. 보유: " + totalQuantity + ", 요청: " + quantity);
@@ -91,8 +119,8 @@ public class TransactionService {
                 .stock(stock)
                 .user(user)
                 .type(TransactionType.valueOf(type.toUpperCase()))
-                .quantity(Long.valueOf(quantity))
-                .price(stock.getCurrentPrice())
+                .quantity(quantity)
+                .price(price)
                 .totalAmount(totalAmount)
                 .transactionDate(null)
                 .build();
@@ -101,7 +129,8 @@ public class TransactionService {
         transactionRepository.save(newTransaction);
         
         // 포트폴리오 업데이트
-        updatePortfolio(user, stock, TransactionType.valueOf(type.toUpperCase()), Long.valueOf(quantity), stock.getCurrentPrice());
+        updatePortfolio(user, stock, TransactionType.valueOf(type.toUpperCase()), quantity, price);
+        dataVersionService.markUserChanged(userId);
         
         return convertToDto(newTransaction);
     }
@@ -146,12 +175,43 @@ public class TransactionService {
         }
     }
 
-    public List<TransactionDto> getUserStockTransactions(Long userId, Long stockId) {
+    public List<TransactionDto> getUserStockTransactions(@ShardKey Long userId, Long stockId) {
         List<Transaction> transactions = transactionRepository.findByUserIdAndStockIdOrderByTransactionDateDesc(userId, stockId);
-        return transactions.stream()
+        return mergeWithArchive(userId, transactions, transactionArchiveService.findByUserIdAndStockId(userId, stockId));
+    }
+
+    private long archivedNetQuantity(Long userId, Long stockId, List<Transaction> hot) {
+        Set<Long> hotIds = hot.stream().map(Transaction::getId).collect(Collectors.toSet());
+        return transactionArchiveService.findByUserIdAndStockId(userId, stockId).stream()
+                .filter(a -> !hotIds.contains(a.id()))
+                .mapToLong(a -> a.type() == TransactionType.BUY ? a.quantity() : -a.quantity())
+                .sum();
+    }
+
+    private List<TransactionDto> mergeWithArchive(Long userId, List<Transaction> hot, List<ArchivedTransaction> archived) {
+        List<TransactionDto> result = hot.stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
-    }   
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (archived.isEmpty()) {
+            return result;
+        }
+
+        // 아카이브 직후 삭제 전에 실패한 경우 양쪽에 같은 거래가 있을 수 있으므로 테이블 쪽을 우선한다
+        Set<Long> hotIds = hot.stream().map(Transaction::getId).collect(Collectors.toSet());
+        User user = userRepository.findById(userId).orElse(null);
+        Map<Long, Stock> stocks = stockRepository.findAllById(archived.stream().map(ArchivedTransaction::stockId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Stock::getId, Function.identity()));
+
+        for (ArchivedTransaction a : archived) {
+            if (!hotIds.contains(a.id())) {
+                result.add(convertToDto(a, user, stocks.get(a.stockId())));
+            }
+        }
+        result.sort(Comparator.comparing(TransactionDto::getTransactionDate,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return result;
+    }
 
     private TransactionDto convertToDto(Transaction transaction) {
         return TransactionDto.builder()
@@ -169,4 +229,21 @@ public class TransactionService {
                 .createdAt(transaction.getCreatedAt())
                 .build();
     }
+
+    private TransactionDto convertToDto(ArchivedTransaction archived, User user, Stock stock) {
+        return TransactionDto.builder()
+                .id(archived.id())
+                .userId(archived.userId())
+                .username(user == null ? null : user.getUsername())
+                .stockId(archived.stockId())
+                .stockCode(stock == null ? null : stock.getCode())
+                .stockName(stock == null ? null : stock.getName())
+                .type(archived.type())
+                .quantity(archived.quantity())
+                .price(archived.price())
+                .totalAmount(archived.totalAmount())
+                .transactionDate(archived.transactionDate())
+                .createdAt(archived.createdAt())
+                .build();
+    }
 }
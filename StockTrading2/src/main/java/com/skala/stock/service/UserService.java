@@ -3,12 +3,21 @@ package com.skala.stock.service;
 import com.skala.stock.dto.UserDto;
 import com.skala.stock.entity.User;
 import com.skala.stock.repository.UserRepository;
+import com.skala.stock.sharding.ShardKey;
+import com.skala.stock.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 @Service
@@ -16,29 +25,69 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserService {
 
+    private static final String INSERT_USER_SQL = """
+            INSERT INTO users (id, username, password, email, balance, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int IDENTITY_LOCK_STRIPES = 64;
+
+    // 샤드 사이에는 사용자명/이메일 유니크 제약이 없어서 "모든 샤드 확인 → 한 샤드에 저장" 사이에 다른 생성이 끼면 둘 다 통과한다.
+    // 같은 사용자명/이메일의 생성·변경은 여기서 한 줄로 세운다 (id 발급처럼 애플리케이션 인스턴스 하나를 전제로 한다)
+    private final ReentrantLock[] identityLocks = newIdentityLocks();
+
     private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // 사용자명/이메일 중복은 모든 샤드를 확인해야 하므로 트랜잭션 밖에서 시작한다
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDto createUser(UserDto userDto) {
-        if (userRepository.existsByUsername(userDto.getUsername())) {
+        Runnable unlock = lockIdentity(userDto.getUsername(), userDto.getEmail());
+        try {
+            return insertUser(userDto);
+        } finally {
+            unlock.run();
+        }
+    }
+
+    private UserDto insertUser(UserDto userDto) {
+        if (existsOnAnyShard("SELECT COUNT(*) FROM users WHERE username = ?", userDto.getUsername())) {
             throw new RuntimeException("이미 존재하는 사용자명입니다: " + userDto.getUsername());
         }
-        if (userRepository.existsByEmail(userDto.getEmail())) {
+        if (existsOnAnyShard("SELECT COUNT(*) FROM users WHERE email = ?", userDto.getEmail())) {
             throw new RuntimeException("이미 존재하는 이메일입니다: " + userDto.getEmail());
         }
 
-        User user = User.builder()
+        if (!shardRouter.isSharded()) {
+            User user = User.builder()
+                    .username(userDto.getUsername())
+                    .password(userDto.getPassword())
+                    .email(userDto.getEmail())
+                    .balance(userDto.getBalance())
+                    .build();
+
+            User savedUser = transactionTemplate.execute(status -> userRepository.save(user));
+            return convertToDto(savedUser);
+        }
+
+        // 샤드 모드: id가 곧 배치 키이므로 id를 먼저 발급하고 해당 샤드에 바로 넣는다
+        long id = shardRouter.nextUserId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        shardRouter.jdbc(shardRouter.shardFor(id)).update(INSERT_USER_SQL,
+                id, userDto.getUsername(), userDto.getPassword(), userDto.getEmail(), userDto.getBalance(), now, now);
+
+        return UserDto.builder()
+                .id(id)
                 .username(userDto.getUsername())
                 .password(userDto.getPassword())
                 .email(userDto.getEmail())
                 .balance(userDto.getBalance())
                 .build();
-
-        User savedUser = userRepository.save(user);
-        return convertToDto(savedUser);
     }
 
-    public UserDto getUserById(Long id) {
+    public UserDto getUserById(@ShardKey Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + id));
         return convertToDto(user);
@@ -46,15 +95,26 @@ public class UserService {
 
     // 추가된 메서드
     @Transactional
-    public UserDto updateUser(Long id, UserDto userDto) {
+    public UserDto updateUser(@ShardKey Long id, UserDto userDto) {
     
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다: " + id));
 
-        if (!user.getUsername().equals(userDto.getUsername()) && userRepository.existsByUsername(userDto.getUsername())) {
+        // 변경은 커밋할 때 보이므로 잠금도 트랜잭션이 끝날 때 푼다
+        Runnable unlock = lockIdentity(userDto.getUsername(), userDto.getEmail());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock.run();
+            }
+        });
+
+        if (!user.getUsername().equals(userDto.getUsername())
+                && existsOnAnyShard("SELECT COUNT(*) FROM users WHERE username = ?", userDto.getUsername())) {
             throw new RuntimeException("이미 존재하는 사용자명입니다: " + userDto.getUsername());
         }
-        if (!user.getEmail().equals(userDto.getEmail()) && userRepository.existsByEmail(userDto.getEmail())) {
+        if (!user.getEmail().equals(userDto.getEmail())
+                && existsOnAnyShard("SELECT COUNT(*) FROM users WHERE email = ?", userDto.getEmail())) {
             throw new RuntimeException("이미 존재하는 이메일입니다: " + userDto.getEmail());
         }
 
@@ -64,22 +124,61 @@ public class UserService {
         user.setBalance(userDto.getBalance());
 
         User updatedUser = userRepository.save(user);
+        dataVersionService.markUserChanged(id);
         return convertToDto(updatedUser);
     }
 
     @Transactional
-    public void deleteUser(Long id) {
+    public void deleteUser(@ShardKey Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("사용자를 찾을 수 없습니다: " + id);
         }
         userRepository.deleteById(id);
+        dataVersionService.markUserChanged(id);
     }
 
+    // 모든 샤드에서 병렬로 읽어 id 순으로 합친다
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<UserDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<UserDto> users = shardRouter.scatter(shard -> userRepository.findAllAsDto());
+        if (shardRouter.isSharded()) {
+            users.sort(Comparator.comparing(UserDto::getId));
+        }
+        return users;
+    }
+
+    // 사용자명과 이메일에 해당하는 잠금을 인덱스 순서로 잡는다 (교착 방지). 돌려준 Runnable로 푼다
+    private Runnable lockIdentity(String username, String email) {
+        int a = Math.floorMod(("username:" + username).hashCode(), IDENTITY_LOCK_STRIPES);
+        int b = Math.floorMod(("email:" + email).hashCode(), IDENTITY_LOCK_STRIPES);
+        ReentrantLock first = identityLocks[Math.min(a, b)];
+        ReentrantLock second = a == b ? null : identityLocks[Math.max(a, b)];
+        first.lock();
+        if (second != null) {
+            second.lock();
+        }
+        return () -> {
+            if (second != null) {
+                second.unlock();
+            }
+            first.unlock();
+        };
+    }
+
+    private static ReentrantLock[] newIdentityLocks() {
+        ReentrantLock[] locks = new ReentrantLock[IDENTITY_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    // 샤드별 커넥션으로 직접 조회한다 (진행 중인 트랜잭션의 샤드와 무관)
+    private boolean existsOnAnyShard(String countSql, Object... args) {
+        return shardRouter.anyShardMatches(shard -> {
+            Long count = shardRouter.jdbc(shard).queryForObject(countSql, Long.class, args);
+            return count != null && count > 0;
+        });
     }
 
     private UserDto convertToDto(User user) {
@@ -0,0 +1,73 @@
+package com.skala.stock.sharding;
+
+import java.util.Arrays;
+
+/**
+ * userId → 샤드 배치를 정하는 일관성 해시 링이다.
+ *
+ * 샤드마다 virtualNodes개의 점을 링 위에 뿌리고, 키의 해시값 이후 처음 만나는 점의 샤드를 고른다.
+ * 샤드 수가 바뀌어도 약 1/N의 사용자만 자리를 옮긴다.
+ * 링은 생성 후 바뀌지 않으므로 조회는 락 없이 이진 탐색 한 번이다.
+ */
+public final class ConsistentHashRing {
+
+    // 가상 노드 점은 키와 다른 해시 공간에 둔다. 같은 mix64를 쓰면 샤드 0의 점이 mix64(v)가 되어
+    // virtualNodes보다 작은 id가 모두 샤드 0의 점에 정확히 떨어진다
+    private static final long VNODE_SALT = 0x9e3779b97f4a7c15L;
+
+    private final long[] points;
+    private final int[] owners;
+    private final int shardCount;
+
+    public ConsistentHashRing(int shardCount, int virtualNodes) {
+        if (shardCount <= 0 || virtualNodes <= 0) {
+            throw new IllegalArgumentException("샤드 수와 가상 노드 수는 0보다 커야 합니다.");
+        }
+        this.shardCount = shardCount;
+
+        int size = shardCount * virtualNodes;
+        long[][] entries = new long[size][2];
+        int n = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[n][0] = vnodePoint(shard, v);
+                entries[n][1] = shard;
+                n++;
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(long key) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int idx = Arrays.binarySearch(points, mix64(key));
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        return owners[idx == points.length ? 0 : idx];
+    }
+
+    private static long vnodePoint(int shard, int v) {
+        return mix64(mix64(((long) shard << 32) | v) ^ VNODE_SALT);
+    }
+
+    // SplitMix64 finalizer: 연속된 id도 링 전체에 고르게 퍼지게 한다
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,97 @@
+package com.skala.stock.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 기동 시 샤드들을 사용할 수 있는 상태로 맞춘다. (웹 서버가 요청을 받기 전에 실행된다)
+ *
+ * Hibernate DDL과 data.sql은 기본 샤드(0)에만 적용되므로:
+ * 1. 샤드 0의 스키마(H2 SCRIPT NODATA)를 나머지 샤드에 그대로 만든다
+ * 2. 샤드마다 identity 시작값을 떨어뜨려 portfolios/transactions 등의 id가 샤드 간에 겹치지 않게 한다
+ * 3. 참조 데이터인 stocks를 모든 샤드에 복제한다
+ * 4. 샤드 0에 들어간 사용자 중 링 상 다른 샤드 소속인 사용자를 (포트폴리오/거래와 함께) 옮긴다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardBootstrap implements SmartInitializingSingleton {
+
+    private static final long SHARD_ID_STRIDE = 1_000_000_000_000L;
+    private static final List<String> IDENTITY_TABLES = List.of("users", "stocks", "portfolios", "transactions", "trade_audit_logs");
+    private static final List<String> USER_TABLES = List.of("portfolios", "transactions", "trade_audit_logs");
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        JdbcTemplate primary = shardRouter.jdbc(0);
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+
+        List<String> ddl = primary.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(sql -> !sql.startsWith("--") && !sql.startsWith("CREATE USER"))
+                .toList();
+
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            JdbcTemplate target = shardRouter.jdbc(shard);
+            ddl.forEach(target::execute);
+            for (String table : IDENTITY_TABLES) {
+                target.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (shard * SHARD_ID_STRIDE + 1));
+            }
+            copyRows(primary, target, "stocks", "1 = 1");
+        }
+
+        int moved = 0;
+        for (Long userId : primary.queryForList("SELECT id FROM users ORDER BY id", Long.class)) {
+            int shard = shardRouter.shardFor(userId);
+            if (shard != 0) {
+                moveUser(userId, primary, shardRouter.jdbc(shard));
+                moved++;
+            }
+        }
+
+        long maxUserId = 0L;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Long max = shardRouter.jdbc(shard).queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+            maxUserId = Math.max(maxUserId, max == null ? 0L : max);
+        }
+        shardRouter.seedUserIdSequence(maxUserId);
+
+        log.info("[SHARD] {} shard(s) ready, {} user(s) moved from shard 0", shardRouter.shardCount(), moved);
+    }
+
+    private static void moveUser(Long userId, JdbcTemplate from, JdbcTemplate to) {
+        copyRows(from, to, "users", "id = ?", userId);
+        for (String table : USER_TABLES) {
+            copyRows(from, to, table, "user_id = ?", userId);
+        }
+        for (String table : USER_TABLES) {
+            from.update("DELETE FROM " + table + " WHERE user_id = ?", userId);
+        }
+        from.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    // 컬럼 이름 그대로(id 포함) 복사한다
+    private static void copyRows(JdbcTemplate from, JdbcTemplate to, String table, String where, Object... args) {
+        List<Map<String, Object>> rows = from.queryForList("SELECT * FROM " + table + " WHERE " + where, args);
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = List.copyOf(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+        List<Object[]> batch = rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList();
+        to.batchUpdate(sql, batch);
+    }
+}
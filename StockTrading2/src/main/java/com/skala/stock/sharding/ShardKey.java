@@ -0,0 +1,15 @@
+package com.skala.stock.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 서비스 메서드의 userId 파라미터에 붙이면 ShardRoutingAspect가
+ * 트랜잭션 시작 전에 해당 사용자의 샤드로 라우팅한다.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
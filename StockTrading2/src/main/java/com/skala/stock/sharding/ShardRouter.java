@@ -0,0 +1,150 @@
+package com.skala.stock.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * 샤드 배치/분산 조회/복제를 한 곳에 모은 도우미다.
+ *
+ * - shardFor: userId가 속한 샤드 (일관성 해시)
+ * - scatter / findFirst: 모든 샤드에 같은 조회를 병렬로 던지고 결과를 모은다 (각 샤드는 자기 읽기 전용 트랜잭션)
+ * - jdbc(shard): 라우팅을 거치지 않는 샤드별 JdbcTemplate. 진행 중인 트랜잭션과 무관하게 auto-commit으로 실행된다
+ * - replicateAfterCommit: 주식처럼 모든 샤드에 같이 있어야 하는 참조 데이터를 커밋 후 나머지 샤드에 반영한다
+ */
+@Component
+public class ShardRouter {
+
+    private final ConsistentHashRing ring;
+    private final List<DataSource> shardDataSources;
+    private final List<JdbcTemplate> shardJdbc;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong userIdSequence = new AtomicLong();
+
+    public ShardRouter(ConsistentHashRing ring, DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.ring = ring;
+        this.shardDataSources = new ArrayList<>();
+        if (dataSource instanceof ShardRoutingDataSource routing) {
+            for (int shard = 0; shard < ring.shardCount(); shard++) {
+                shardDataSources.add(routing.getResolvedDataSources().get(shard));
+            }
+        } else {
+            shardDataSources.add(dataSource);
+        }
+        this.shardJdbc = shardDataSources.stream().map(JdbcTemplate::new).toList();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public boolean isSharded() {
+        return ring.shardCount() > 1;
+    }
+
+    public int shardCount() {
+        return ring.shardCount();
+    }
+
+    public int shardFor(long userId) {
+        return ring.shardFor(userId);
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return shardJdbc.get(shard);
+    }
+
+    /**
+     * 샤드 커넥션 풀에서 커넥션을 기다리는 스레드 수. 배치 작업이 라이브 요청에 양보해야 하는지 판단할 때 쓴다.
+     */
+    public int threadsAwaitingConnection(int shard) {
+        if (shardDataSources.get(shard) instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            return hikari.getHikariPoolMXBean().getThreadsAwaitingConnection();
+        }
+        return 0;
+    }
+
+    /**
+     * 사용자 id는 샤드를 고르기 전에 정해져야 하므로(배치 키) DB identity 대신 여기서 발급한다.
+     */
+    public long nextUserId() {
+        return userIdSequence.incrementAndGet();
+    }
+
+    void seedUserIdSequence(long maxUserId) {
+        userIdSequence.accumulateAndGet(maxUserId, Math::max);
+    }
+
+    public <T> List<T> scatter(IntFunction<List<T>> perShard) {
+        if (!isSharded()) {
+            return readOnlyTx.execute(status -> perShard.apply(0));
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int s = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> ShardContext.call(s, () -> readOnlyTx.execute(status -> perShard.apply(s))), scatterExecutor));
+        }
+
+        List<T> result = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            result.addAll(future.join());
+        }
+        return result;
+    }
+
+    public <T> Optional<T> findFirst(IntFunction<Optional<T>> perShard) {
+        return scatter(shard -> perShard.apply(shard).map(List::of).orElse(List.of()))
+                .stream()
+                .findFirst();
+    }
+
+    public boolean anyShardMatches(IntFunction<Boolean> perShard) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            if (Boolean.TRUE.equals(perShard.apply(shard))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 기본 샤드(0)에서 커밋된 변경을 나머지 샤드에 같은 SQL로 반영한다.
+     * 샤드 간 분산 트랜잭션은 없으므로 복제는 커밋 직후 best-effort로 수행된다.
+     */
+    public void replicateAfterCommit(String sql, Object... args) {
+        if (!isSharded()) {
+            return;
+        }
+        Runnable replicate = () -> {
+            for (int shard = 1; shard < shardCount(); shard++) {
+                jdbc(shard).update(sql, args);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            replicate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                replicate.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.skala.stock.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ShardKey 파라미터가 있는 서비스 메서드를 해당 사용자의 샤드에서 실행한다.
+ *
+ * 트랜잭션 어드바이스보다 먼저(바깥에서) 실행되어야 커넥션이 올바른 샤드에서 잡힌다.
+ * 이미 샤드가 정해진 호출(서비스 간 중첩 호출)은 그대로 둔다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private static final int NO_SHARD_KEY = -1;
+
+    private final ConsistentHashRing ring;
+
+    private final ConcurrentHashMap<Method, Integer> keyIndexCache = new ConcurrentHashMap<>();
+
+    // 사용자 단위 데이터를 다루는 서비스에만 건다 (요청 제한기 등 핫패스 빈에는 프록시를 씌우지 않는다)
+    @Around("execution(public * com.skala.stock.service.UserService.*(..))"
+            + " || execution(public * com.skala.stock.service.PortfolioService.*(..))"
+            + " || execution(public * com.skala.stock.service.TransactionService.*(..))"
+            + " || execution(public * com.skala.stock.service.StockAnalysisService.*(..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        int keyIndex = keyIndexCache.computeIfAbsent(method, ShardRoutingAspect::findShardKeyIndex);
+        if (keyIndex == NO_SHARD_KEY) {
+            return joinPoint.proceed();
+        }
+
+        Object key = joinPoint.getArgs()[keyIndex];
+        if (!(key instanceof Long userId)) {
+            return joinPoint.proceed(); // null 검증은 서비스에 맡긴다
+        }
+
+        return ShardContext.call(ring.shardFor(userId), () -> proceed(joinPoint));
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int findShardKeyIndex(Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+        return NO_SHARD_KEY;
+    }
+}
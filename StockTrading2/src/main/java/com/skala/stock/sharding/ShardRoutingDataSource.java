@@ -0,0 +1,28 @@
+package com.skala.stock.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * ShardContext에 설정된 샤드의 DataSource로 커넥션 요청을 넘긴다.
+ * 샤드가 지정되지 않은 요청(공통 데이터, 초기화 스크립트 등)은 기본 샤드(0)로 간다.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    // @Bean 의 close 추론으로 종료 시 샤드별 커넥션 풀을 닫는다 (샤드는 모두 ShardingConfig가 만든 Hikari 풀이다)
+    @Override
+    public void close() {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
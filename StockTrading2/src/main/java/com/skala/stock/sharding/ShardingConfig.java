@@ -0,0 +1,55 @@
+package com.skala.stock.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * stock.sharding.count 개의 임베디드 H2 DB를 만들고 userId 기준으로 라우팅한다.
+ *
+ * - count가 1이면 spring.datasource.url 하나만 쓰는 기존 구성과 같다
+ * - count가 N이면 URL 뒤에 _0 ~ _N-1을 붙인 DB를 각각 만든다
+ */
+@Configuration
+public class ShardingConfig {
+
+    @Bean
+    public ConsistentHashRing consistentHashRing(@Value("${stock.sharding.count:1}") int shardCount,
+                                                 @Value("${stock.sharding.virtual-nodes:128}") int virtualNodes) {
+        return new ConsistentHashRing(shardCount, virtualNodes);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ConsistentHashRing ring) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < ring.shardCount(); shard++) {
+            String url = ring.shardCount() == 1 ? properties.determineUrl() : shardUrl(properties.determineUrl(), shard);
+            HikariDataSource shardDataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .build();
+            shardDataSource.setPoolName("shard-" + shard);
+            targets.put(shard, shardDataSource);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(0));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // jdbc:h2:mem:stockdb;MODE=... → jdbc:h2:mem:stockdb_1;MODE=...
+    private static String shardUrl(String baseUrl, int shard) {
+        int options = baseUrl.indexOf(';');
+        return options < 0
+                ? baseUrl + "_" + shard
+                : baseUrl.substring(0, options) + "_" + shard + baseUrl.substring(options);
+    }
+}
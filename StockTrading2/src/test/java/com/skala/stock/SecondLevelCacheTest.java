@@ -0,0 +1,105 @@
+package com.skala.stock;
+
+import com.skala.stock.dto.StockDto;
+import com.skala.stock.dto.UserDto;
+import com.skala.stock.entity.Stock;
+import com.skala.stock.entity.User;
+import com.skala.stock.repository.StockRepository;
+import com.skala.stock.repository.UserRepository;
+import com.skala.stock.service.BulkImportService;
+import com.skala.stock.service.EndOfDayService;
+import com.skala.stock.service.StockService;
+import com.skala.stock.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시/쿼리 캐시에 올라간 Stock/User가 갱신 후 낡은 값을 돌려주지 않는지 확인한다.
+ * JPA로 바꾸는 경로는 READ_WRITE 캐시가, JDBC로 직접 바꾸는 경로(일괄 적재/장 마감)는 evictAll이 책임진다.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EndOfDayService endOfDayService;
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Test
+    void stockPriceUpdateIsVisibleOnNextRead() {
+        stockService.getStockById(2L);
+        assertThat(entityManagerFactory.getCache().contains(Stock.class, 2L)).isTrue();
+
+        stockService.updateCurrentPrice(2L, 125_000L);
+
+        assertThat(stockService.getStockById(2L).getCurrentPrice()).isEqualTo(125_000L);
+    }
+
+    @Test
+    void userUpdateIsVisibleOnNextRead() {
+        UserDto before = userService.getUserById(3L);
+        assertThat(entityManagerFactory.getCache().contains(User.class, 3L)).isTrue();
+
+        UserDto changed = UserDto.builder()
+                .username(before.getUsername())
+                .password(before.getPassword())
+                .email(before.getEmail())
+                .balance(before.getBalance() + 12_345L)
+                .build();
+        userService.updateUser(3L, changed);
+
+        assertThat(userService.getUserById(3L).getBalance()).isEqualTo(before.getBalance() + 12_345L);
+        assertThat(userRepository.findByUsername(before.getUsername()))
+                .get().extracting(User::getBalance).isEqualTo(before.getBalance() + 12_345L);
+    }
+
+    @Test
+    void endOfDayJdbcUpdateEvictsCachedStocks() {
+        StockDto cached = stockService.getStockById(1L);
+        assertThat(entityManagerFactory.getCache().contains(Stock.class, 1L)).isTrue();
+        Long currentPrice = jdbcTemplate.queryForObject("SELECT current_price FROM stocks WHERE id = 1", Long.class);
+
+        endOfDayService.run(LocalDate.now());
+
+        assertThat(entityManagerFactory.getCache().contains(Stock.class, 1L)).isFalse();
+        assertThat(stockRepository.findById(1L)).get()
+                .extracting(Stock::getPreviousPrice).isEqualTo(currentPrice);
+        assertThat(stockService.getStockById(1L).getPreviousPrice())
+                .isEqualTo(currentPrice)
+                .isNotEqualTo(cached.getPreviousPrice());
+    }
+
+    @Test
+    void bulkImportEvictsCachedQueryResults() {
+        // 없는 사용자 조회 결과(빈 결과)가 쿼리 캐시에 올라간다
+        assertThat(userRepository.findByUsername("bulkcache")).isEmpty();
+
+        String csv = "username,password,email,balance\nbulkcache,pass1234,bulkcache@example.com,5000\n";
+        bulkImportService.importCsv(BulkImportService.ImportType.USERS, "cache-test",
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(userRepository.findByUsername("bulkcache"))
+                .get().extracting(User::getBalance).isEqualTo(5000L);
+    }
+}
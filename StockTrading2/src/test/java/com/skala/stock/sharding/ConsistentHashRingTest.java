@@ -0,0 +1,51 @@
+package com.skala.stock.sharding;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 연속된 userId, 특히 가상 노드 수보다 작은 id가 한 샤드에 몰리지 않는지 확인한다.
+ */
+class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 8})
+    void lowIdsSpreadAcrossShards(int shardCount) {
+        ConsistentHashRing ring = new ConsistentHashRing(shardCount, VIRTUAL_NODES);
+
+        int ids = VIRTUAL_NODES - 1;
+
+        int[] counts = countPerShard(ring, ids);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            assertThat(counts[shard]).as("shard %d", shard).isPositive();
+            assertThat(counts[shard]).as("shard %d", shard).isLessThan(ids * 3 / 4);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 8})
+    void manyIdsAreBalanced(int shardCount) {
+        ConsistentHashRing ring = new ConsistentHashRing(shardCount, VIRTUAL_NODES);
+        int ids = 100_000;
+
+        int[] counts = countPerShard(ring, ids);
+
+        double fair = (double) ids / shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            assertThat(counts[shard]).as("shard %d", shard).isBetween((int) (fair * 0.7), (int) (fair * 1.3));
+        }
+    }
+
+    private static int[] countPerShard(ConsistentHashRing ring, int maxId) {
+        int[] counts = new int[ring.shardCount()];
+        for (long id = 1; id <= maxId; id++) {
+            counts[ring.shardFor(id)]++;
+        }
+        return counts;
+    }
+}
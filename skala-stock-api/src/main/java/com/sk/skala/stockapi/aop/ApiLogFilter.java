@@ -0,0 +1,52 @@
+package com.sk.skala.stockapi.aop;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.data.common.ApiLog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+// LoggingAspect가 남기기로 한 ApiLog에, 실제로 클라이언트에 보낸 응답 본문을 붙여 비동기 기록기로 넘긴다
+@Component
+@RequiredArgsConstructor
+public class ApiLogFilter extends OncePerRequestFilter {
+	static final String API_LOG_ATTRIBUTE = ApiLogFilter.class.getName() + ".API_LOG";
+	static final String CAPTURE_RESPONSE_ATTRIBUTE = ApiLogFilter.class.getName() + ".CAPTURE_RESPONSE";
+
+	private final ApplicationProperties applicationProperties;
+	private final ApiLogWriter apiLogWriter;
+
+	// WebSocket 업그레이드 요청은 REST 응답이 아니므로 감싸지 않는다
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return "websocket".equalsIgnoreCase(request.getHeader("Upgrade"));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		BodyCaptureResponseWrapper wrapper = new BodyCaptureResponseWrapper(request, response,
+				applicationProperties.getApiLog().getMaxBodyBytes());
+		try {
+			filterChain.doFilter(request, wrapper);
+		} finally {
+			if (request.getAttribute(API_LOG_ATTRIBUTE) instanceof ApiLog apiLog) {
+				String body = Boolean.TRUE.equals(request.getAttribute(CAPTURE_RESPONSE_ATTRIBUTE))
+						? wrapper.getCapturedBody()
+						: null;
+				if (body != null) {
+					apiLog.setResponseBody(body);
+				}
+				apiLogWriter.submit(apiLog);
+			}
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.sk.skala.stockapi.aop;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.data.common.ApiLog;
+import com.sk.skala.stockapi.tools.JsonTool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// ApiLog 비동기 기록기.
+// 요청 스레드는 고정 크기 큐에 넣기만 하고(가득 차면 버리고 카운트), 전용 스레드가 모아서 한 번에 쓴다.
+// 카운터는 actuator의 api.log.records{outcome=written|dropped|sampled_out} 로 볼 수 있다.
+@Component
+@Slf4j
+public class ApiLogWriter implements SmartLifecycle {
+	private static final long POLL_MILLIS = 200;
+	// sink=log 일 때는 기존과 같은 로거 이름으로 남긴다
+	private static final Logger API_LOG = LoggerFactory.getLogger(LoggingAspect.class);
+
+	private final ApplicationProperties applicationProperties;
+	private final ApplicationProperties.ApiLogConfig config;
+	private final BlockingQueue<ApiLog> queue;
+	private final Counter written;
+	private final Counter dropped;
+	private final Counter sampledOut;
+
+	private volatile boolean running;
+	private Thread worker;
+	private BufferedWriter fileWriter;
+
+	public ApiLogWriter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+		this.applicationProperties = applicationProperties;
+		this.config = applicationProperties.getApiLog();
+		this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+		this.written = meterRegistry.counter("api.log.records", "outcome", "written");
+		this.dropped = meterRegistry.counter("api.log.records", "outcome", "dropped");
+		this.sampledOut = meterRegistry.counter("api.log.records", "outcome", "sampled_out");
+	}
+
+	public void submit(ApiLog apiLog) {
+		if (!queue.offer(apiLog)) {
+			dropped.increment();
+		}
+	}
+
+	public void markSampledOut() {
+		sampledOut.increment();
+	}
+
+	@Override
+	public void start() {
+		if ("file".equals(config.getSink())) {
+			try {
+				Path path = Path.of(config.getFilePath());
+				if (path.getParent() != null) {
+					Files.createDirectories(path.getParent());
+				}
+				fileWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND);
+			} catch (IOException e) {
+				throw new IllegalStateException("ApiLogWriter: cannot open " + config.getFilePath(), e);
+			}
+		}
+		running = true;
+		worker = Thread.ofPlatform().name("api-log-writer").daemon().start(this::drainLoop);
+	}
+
+	// 웹 서버(graceful shutdown 포함)가 멈춘 뒤에 멈춘다. 그래야 종료 중에 끝난 요청의 로그까지 큐에 들어온 뒤 비운다
+	// (stop은 phase가 큰 것부터 부른다)
+	@Override
+	public int getPhase() {
+		return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (worker.isAlive()) {
+			// 기록기가 아직 쓰는 중이면 같은 writer를 동시에 쓰게 되므로 남은 것은 버린다
+			log.warn("ApiLogWriter.stop: writer did not finish in time, {} record(s) not written", queue.size());
+			dropped.increment(queue.size());
+			return;
+		}
+		// 종료 직전에 들어온 것까지 마저 쓴다
+		List<ApiLog> rest = new ArrayList<>();
+		queue.drainTo(rest);
+		write(rest);
+		if (fileWriter != null) {
+			try {
+				fileWriter.close();
+			} catch (IOException e) {
+				log.error("ApiLogWriter.stop: {}", e.toString());
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void drainLoop() {
+		List<ApiLog> batch = new ArrayList<>(config.getBatchSize());
+		while (running) {
+			try {
+				ApiLog first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, config.getBatchSize() - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("ApiLogWriter.drainLoop: {}", e.toString());
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<ApiLog> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		String name = applicationProperties.getName();
+		switch (config.getSink()) {
+		case "stdout" -> {
+			StringBuilder sb = new StringBuilder(batch.size() * 512);
+			for (ApiLog apiLog : batch) {
+				sb.append(name).append(": ").append(JsonTool.toLogString(apiLog)).append('\n');
+			}
+			PrintStream out = System.out;
+			out.print(sb);
+			out.flush();
+		}
+		case "file" -> {
+			try {
+				for (ApiLog apiLog : batch) {
+					fileWriter.write(name);
+					fileWriter.write(": ");
+					fileWriter.write(JsonTool.toLogString(apiLog));
+					fileWriter.newLine();
+				}
+				fileWriter.flush();
+			} catch (IOException e) {
+				log.error("ApiLogWriter.write: {}", e.toString());
+				dropped.increment(batch.size());
+				return;
+			}
+		}
+		default -> {
+			for (ApiLog apiLog : batch) {
+				API_LOG.info("{}: {}", name, JsonTool.toLogString(apiLog));
+			}
+		}
+		}
+		written.increment(batch.size());
+	}
+}
@@ -0,0 +1,96 @@
+package com.sk.skala.stockapi.aop;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// 클라이언트로 나가는 응답 바이트를 그대로 흘려보내면서 앞부분(maxBytes)만 복사해 둔다.
+// 로그를 위해 응답을 다시 직렬화하지 않기 위한 것이다. getWriter()로 쓰는 응답은 담지 않는다.
+// 담을지는 처음 getOutputStream()이 불릴 때 요청 속성(LoggingAspect가 남기기로 한 경우에만 설정)을 보고 정한다.
+// 본문은 핸들러가 끝난 뒤에 쓰이므로 그때는 이미 정해져 있고, 샘플링에서 빠진 응답은 복사하지 않는다.
+class BodyCaptureResponseWrapper extends HttpServletResponseWrapper {
+	private final HttpServletRequest request;
+	private final int maxBytes;
+	private ByteArrayOutputStream captured;
+	private long totalBytes;
+	private ServletOutputStream outputStream;
+
+	BodyCaptureResponseWrapper(HttpServletRequest request, HttpServletResponse response, int maxBytes) {
+		super(response);
+		this.request = request;
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if (outputStream == null) {
+			if (Boolean.TRUE.equals(request.getAttribute(ApiLogFilter.CAPTURE_RESPONSE_ATTRIBUTE))) {
+				captured = new ByteArrayOutputStream(Math.min(maxBytes, 256));
+				outputStream = new CapturingOutputStream(super.getOutputStream());
+			} else {
+				outputStream = super.getOutputStream();
+			}
+		}
+		return outputStream;
+	}
+
+	// 잘렸으면 원래 크기를 뒤에 붙인다. 담지 않았거나 아무것도 쓰지 않았으면 null
+	String getCapturedBody() {
+		if (captured == null || totalBytes == 0) {
+			return null;
+		}
+		return BodyTruncator.decode(captured.toByteArray(), captured.size(), totalBytes);
+	}
+
+	private class CapturingOutputStream extends ServletOutputStream {
+		private final ServletOutputStream delegate;
+
+		CapturingOutputStream(ServletOutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+			if (captured.size() < maxBytes) {
+				captured.write(b);
+			}
+			totalBytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+			int room = maxBytes - captured.size();
+			if (room > 0) {
+				captured.write(b, off, Math.min(room, len));
+			}
+			totalBytes += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			delegate.setWriteListener(writeListener);
+		}
+	}
+}
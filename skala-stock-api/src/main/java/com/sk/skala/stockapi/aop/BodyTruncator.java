@@ -0,0 +1,44 @@
+package com.sk.skala.stockapi.aop;
+
+import java.nio.charset.StandardCharsets;
+
+// 로그 본문을 max-body-bytes(UTF-8 바이트)로 자른다. 요청 본문(LoggingAspect)과 응답 본문(BodyCaptureResponseWrapper)이 같이 쓴다.
+// 멀티바이트 문자(한글은 3바이트) 중간에서 자르면 U+FFFD로 깨지므로 문자 경계까지 물러나서 자른다
+final class BodyTruncator {
+	private BodyTruncator() {
+	}
+
+	static String truncate(String body, int maxBytes) {
+		if (body == null || body.length() * 3L <= maxBytes) {
+			return body; // UTF-8은 char 하나에 최대 3바이트
+		}
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length <= maxBytes) {
+			return body;
+		}
+		return decode(bytes, maxBytes, bytes.length);
+	}
+
+	// 앞부분 bytes[0, length)를 문자 경계에서 끊어 디코딩하고, 잘렸으면 원래 크기를 뒤에 붙인다
+	static String decode(byte[] bytes, int length, long totalBytes) {
+		if (totalBytes <= length) {
+			return new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		int cut = charBoundary(bytes, length);
+		return new String(bytes, 0, cut, StandardCharsets.UTF_8) + "...(truncated, " + totalBytes + " bytes)";
+	}
+
+	// bytes[0, length) 끝에 걸친 미완성 문자가 있으면 그 문자의 첫 바이트 위치, 없으면 length
+	private static int charBoundary(byte[] bytes, int length) {
+		int lead = length - 1;
+		while (lead > 0 && length - lead < 4 && (bytes[lead] & 0xC0) == 0x80) {
+			lead--; // 10xxxxxx: 이어지는 바이트
+		}
+		if (lead < 0) {
+			return length;
+		}
+		int b = bytes[lead] & 0xFF;
+		int size = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+		return lead + size <= length ? length : lead;
+	}
+}
@@ -1,15 +1,20 @@
 package com.sk.skala.stockapi.aop;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.config.ApplicationProperties.ApiLogConfig;
 import com.sk.skala.stockapi.config.Constant;
 import com.sk.skala.stockapi.config.Error;
 import com.sk.skala.stockapi.data.common.ApiLog;
@@ -28,6 +33,10 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class LoggingAspect {
 	private final ApplicationProperties applicationProperties;
+	private final ApiLogWriter apiLogWriter;
+
+	// 핸들러 메서드별 로깅 메타데이터. 리플렉션/문자열 조립은 메서드당 한 번만 한다
+	private final Map<Method, MethodMeta> methodMetas = new ConcurrentHashMap<>();
 
 	@Around("@annotation(org.springframework.web.bind.annotation.GetMapping) ||"
 			+ " @annotation(org.springframework.web.bind.annotation.PostMapping) ||"
@@ -35,75 +44,101 @@ public class LoggingAspect {
 			+ " @annotation(org.springframework.web.bind.annotation.DeleteMapping)")
 	public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
 
-		if (isSkipLogging(joinPoint)) {
+		MethodMeta meta = methodMetas.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+				m -> buildMethodMeta(joinPoint, m));
+		if (meta.skip()) {
 			return joinPoint.proceed();
 		}
 
+		ApiLogConfig config = applicationProperties.getApiLog();
+		// 성공 호출은 비율만큼만 남긴다. 실패는 항상 남긴다
+		boolean sampled = config.getSuccessSampleRate() >= 1.0
+				|| ThreadLocalRandom.current().nextDouble() < config.getSuccessSampleRate();
+
 		ApiLog apiLog = new ApiLog();
 		apiLog.setTimestamp(System.currentTimeMillis());
 
-		String controller = joinPoint.getSignature().getDeclaringTypeName() + "." + joinPoint.getSignature().getName();
 		ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
 		HttpServletRequest request = attributes.getRequest();
+		boolean failed = false;
 
 		try {
-			apiLog.setRemoteAddress(getRemoteAddress(request));
-			apiLog.setApiHost(HostInfo.getHostname());
-			apiLog.setApiUrl(request.getRequestURI());
-			apiLog.setApiMethod(request.getMethod());
-			apiLog.setApiController(controller);
-			apiLog.setRequestParams(request.getQueryString());
-
-			String contentType = request.getContentType();
-			if (contentType != null && Constant.TEXT_TYPES.contains(contentType.toLowerCase())) {
-				String body = JsonTool.toString(joinPoint.getArgs());
-				apiLog.setRequestBody(body);
+			if (sampled) {
+				setRequestBody(apiLog, joinPoint, request, meta, config);
 			}
 
 			Object result = joinPoint.proceed();
-			if (result instanceof Response) {
-				String body = JsonTool.toString(result);
-				apiLog.setResponseBody(body);
-			}
-
 			apiLog.setApiResult(Constant.RESULT_SUCCESS);
+			if (sampled && meta.logResponseBody() && result instanceof Response) {
+				// 응답 본문은 여기서 직렬화하지 않고 ApiLogFilter가 클라이언트로 나간 바이트를 붙인다
+				request.setAttribute(ApiLogFilter.CAPTURE_RESPONSE_ATTRIBUTE, Boolean.TRUE);
+			}
 			return result;
 		} catch (Exception e) {
+			failed = true;
 			Response response = new Response();
 			response.setError(Error.SYSTEM_ERROR.getCode(), e.getMessage());
 
 			apiLog.setApiResult(Constant.RESULT_FAIL);
-			apiLog.setResponseBody(JsonTool.toString(response));
+			apiLog.setResponseBody(JsonTool.toString(response)); // 예외 처리기가 실제로 보낸 응답이 있으면 그것으로 바뀐다
+			request.setAttribute(ApiLogFilter.CAPTURE_RESPONSE_ATTRIBUTE, Boolean.TRUE);
+			if (!sampled) {
+				setRequestBody(apiLog, joinPoint, request, meta, config);
+			}
 			throw e;
 		} finally {
 			apiLog.setElapsedTime(System.currentTimeMillis() - apiLog.getTimestamp());
-			log.info("{}: {}", applicationProperties.getName(), JsonTool.toString(apiLog));
+			if (sampled || failed) {
+				apiLog.setRemoteAddress(getRemoteAddress(request));
+				apiLog.setApiHost(HostInfo.getHostname());
+				apiLog.setApiUrl(request.getRequestURI());
+				apiLog.setApiMethod(request.getMethod());
+				apiLog.setApiController(meta.controller());
+				apiLog.setRequestParams(request.getQueryString());
+				request.setAttribute(ApiLogFilter.API_LOG_ATTRIBUTE, apiLog);
+			} else {
+				apiLogWriter.markSampledOut();
+			}
 		}
 	}
 
-	private boolean isSkipLogging(ProceedingJoinPoint joinPoint) {
+	private void setRequestBody(ApiLog apiLog, ProceedingJoinPoint joinPoint, HttpServletRequest request,
+			MethodMeta meta, ApiLogConfig config) {
+		String contentType = request.getContentType();
+		if (meta.logRequestBody() && contentType != null && Constant.TEXT_TYPES.contains(contentType.toLowerCase())) {
+			String body = JsonTool.toString(joinPoint.getArgs());
+			apiLog.setRequestBody(BodyTruncator.truncate(body, config.getMaxBodyBytes()));
+		}
+	}
+
+	private MethodMeta buildMethodMeta(ProceedingJoinPoint joinPoint, Method signatureMethod) {
+		boolean skip = false;
 		try {
 			Method method = getMethodFromJoinPoint(joinPoint);
-			if (method != null) {
-				if (method.isAnnotationPresent(SkipLogging.class)
-						|| method.getDeclaringClass().isAnnotationPresent(SkipLogging.class)) {
-					return true;
-				}
-			}
+			skip = method.isAnnotationPresent(SkipLogging.class)
+					|| method.getDeclaringClass().isAnnotationPresent(SkipLogging.class);
 		} catch (NoSuchMethodException e) {
-			log.error("MaskingAspect.shouldSkipMasking: {}", e.getMessage());
+			log.error("LoggingAspect.buildMethodMeta: {}", e.getMessage());
 		}
-		return false;
+
+		String controller = joinPoint.getSignature().getDeclaringTypeName() + "." + joinPoint.getSignature().getName();
+		Class<?> returnType = signatureMethod.getReturnType();
+		return new MethodMeta(skip, controller, signatureMethod.getParameterCount() > 0,
+				returnType.isAssignableFrom(Response.class));
 	}
 
 	private Method getMethodFromJoinPoint(ProceedingJoinPoint joinPoint) throws NoSuchMethodException {
 		String methodName = joinPoint.getSignature().getName();
 		Class<?> targetClass = joinPoint.getTarget().getClass();
-		Class<?>[] parameterTypes = ((org.aspectj.lang.reflect.MethodSignature) joinPoint.getSignature())
-				.getParameterTypes();
+		Class<?>[] parameterTypes = ((MethodSignature) joinPoint.getSignature()).getParameterTypes();
 		return targetClass.getMethod(methodName, parameterTypes);
 	}
 
+	// skip: @SkipLogging 여부, controller: 로그에 남길 핸들러 이름
+	// logRequestBody: 인자가 있는 메서드만, logResponseBody: Response를 돌려줄 수 있는 메서드만 본문을 남긴다
+	private record MethodMeta(boolean skip, String controller, boolean logRequestBody, boolean logResponseBody) {
+	}
+
 	String getRemoteAddress(HttpServletRequest request) {
 		String address = request.getHeader("X-Forwarded-For");
 		if (StringTool.isEmpty(address)) {
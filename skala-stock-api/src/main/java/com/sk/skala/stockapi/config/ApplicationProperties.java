@@ -1,5 +1,8 @@
 package com.sk.skala.stockapi.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,10 +14,42 @@ import lombok.Data;
 public class ApplicationProperties {
 	private String name;
 	private Health health;
+	private ApiLogConfig apiLog = new ApiLogConfig();
+	private MarketConfig market = new MarketConfig();
+	private MarketFeedConfig marketFeed = new MarketFeedConfig();
 
 	@Data
 	public static class Health {
 		String url;
 		long timeout;
 	}
+
+	@Data
+	public static class ApiLogConfig {
+		String sink = "log"; // log | stdout | file
+		String filePath = "./logs/api.log";
+		int queueCapacity = 10_000;
+		int batchSize = 256;
+		int maxBodyBytes = 4_096; // 요청/응답 본문은 UTF-8 기준 이 바이트 수까지만 남긴다
+		double successSampleRate = 1.0; // 성공 호출을 남길 비율 (실패는 항상 남긴다)
+	}
+
+	@Data
+	public static class MarketConfig {
+		boolean enabled = false;
+		long tickMillis = 100; // 10 Hz
+		double drift = 0.0; // 시간(1h)당 기대 수익률 mu
+		double volatility = 0.2; // 시간(1h)당 변동성 sigma
+		long persistMillis = 5_000; // 실시간 가격을 DB에 일괄 반영하는 주기
+		int maxStockId = 1_000_000; // 가격 배열로 관리할 최대 stock id
+		int maxOpenOrdersPerPlayer = 100; // 플레이어별 대기 중인 지정가/stop 주문 수 한도
+	}
+
+	@Data
+	public static class MarketFeedConfig {
+		long pushMillis = 1_000; // 이 주기 동안의 가격 변화를 모아 한 번에 보낸다
+		int sendTimeLimitMillis = 5_000; // 한 세션에 보내기가 이보다 오래 막히면 연결을 끊는다
+		int sendBufferBytes = 512 * 1024; // 세션별 미전송 버퍼 한도. 넘치면 쌓인 메시지를 버리고 다음 push에서 전체 시세를 다시 보낸다
+		List<String> allowedOrigins = new ArrayList<>(); // 비어 있으면 같은 origin만 허용
+	}
 }
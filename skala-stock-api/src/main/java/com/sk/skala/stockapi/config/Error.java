@@ -20,6 +20,8 @@ public enum Error {
 	INSUFFICIENT_FUNDS(9101, "INSUFFICIENT_FUNDS"),
 	INSUFFICIENT_QUANTITY(9102, "INSUFFICIENT_QUANTITY"),
 	INSUFFICIENT_STOCK_QUANTITY(9103, "INSUFFICIENT_STOCK_QUANTITY"),
+	TOO_MANY_ORDERS(9104, "TOO_MANY_ORDERS"),
+	LIMIT_NOT_MET(9105, "LIMIT_NOT_MET"),
 
 	UNDEFINED_ERROR(9999, "UNDEFINED_ERROR");
 	
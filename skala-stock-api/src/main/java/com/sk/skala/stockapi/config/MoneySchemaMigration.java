@@ -0,0 +1,64 @@
+package com.sk.skala.stockapi.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+// 금액 컬럼을 DOUBLE(stock_price, player_money)에서 BIGINT 최소 단위(*_minor)로 옮긴다.
+// Hibernate(ddl-auto: update)가 스키마를 보기 전에 실행되어야 하므로 EntityManagerFactory가 이 빈에 의존하게 한다.
+// 옛 컬럼이 없으면(새 DB이거나 이미 옮긴 DB) 아무것도 하지 않는다.
+@Configuration
+@Slf4j
+public class MoneySchemaMigration {
+	private static final String[][] MONEY_COLUMNS = {
+			// table, legacy DOUBLE column, BIGINT minor-unit column
+			{ "STOCK", "STOCK_PRICE", "STOCK_PRICE_MINOR" },
+			{ "PLAYER", "PLAYER_MONEY", "PLAYER_MONEY_MINOR" } };
+
+	private static final long MINOR_PER_UNIT = 100L; // Money.SCALE = 2
+
+	@Bean
+	MoneySchemaMigration.Result moneySchemaMigrationResult(DataSource dataSource) {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		int migrated = 0;
+		for (String[] column : MONEY_COLUMNS) {
+			if (migrate(jdbc, column[0], column[1], column[2])) {
+				migrated++;
+			}
+		}
+		return new Result(migrated);
+	}
+
+	@Bean
+	static EntityManagerFactoryDependsOnPostProcessor moneySchemaMigrationDependsOn() {
+		return new EntityManagerFactoryDependsOnPostProcessor("moneySchemaMigrationResult");
+	}
+
+	private boolean migrate(JdbcTemplate jdbc, String table, String legacyColumn, String minorColumn) {
+		if (!columnExists(jdbc, table, legacyColumn)) {
+			return false;
+		}
+
+		jdbc.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + minorColumn + " BIGINT");
+		int rows = jdbc.update("UPDATE " + table + " SET " + minorColumn + " = CAST(ROUND(" + legacyColumn + " * "
+				+ MINOR_PER_UNIT + ") AS BIGINT) WHERE " + minorColumn + " IS NULL");
+		jdbc.execute("ALTER TABLE " + table + " DROP COLUMN " + legacyColumn);
+
+		log.info("MoneySchemaMigration: {}.{} -> {} ({} rows)", table, legacyColumn, minorColumn, rows);
+		return true;
+	}
+
+	private boolean columnExists(JdbcTemplate jdbc, String table, String column) {
+		Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+				+ "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?", Integer.class, table, column);
+		return count != null && count > 0;
+	}
+
+	public record Result(int migratedColumns) {
+	}
+}
@@ -0,0 +1,29 @@
+package com.sk.skala.stockapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.sk.skala.stockapi.controller.MarketHandshakeInterceptor;
+import com.sk.skala.stockapi.controller.MarketSocketHandler;
+
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+	private final MarketSocketHandler marketSocketHandler;
+	private final MarketHandshakeInterceptor marketHandshakeInterceptor;
+	private final ApplicationProperties applicationProperties;
+
+	// 쿠키로 인증하므로 다른 사이트에서 연결하지 못하게 origin은 설정한 것만 허용한다 (기본: 같은 origin)
+	@Override
+	public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+		registry.addHandler(marketSocketHandler, "/ws/market")
+				.addInterceptors(marketHandshakeInterceptor)
+				.setAllowedOrigins(applicationProperties.getMarketFeed().getAllowedOrigins().toArray(String[]::new));
+	}
+}
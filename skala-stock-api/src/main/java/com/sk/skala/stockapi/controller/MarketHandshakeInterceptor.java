@@ -0,0 +1,52 @@
+package com.sk.skala.stockapi.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import com.sk.skala.stockapi.data.dto.PlayerSession;
+import com.sk.skala.stockapi.service.SessionHandler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// WebSocket 연결 전에 REST API와 같은 bff-access 쿠키(JWT)로 플레이어를 확인한다
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarketHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String PLAYER_ID_ATTRIBUTE = "playerId";
+
+    private final SessionHandler sessionHandler;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            try {
+                PlayerSession playerSession = sessionHandler.getPlayerSession(servletRequest.getServletRequest());
+                if (playerSession != null && playerSession.getPlayerId() != null) {
+                    attributes.put(PLAYER_ID_ATTRIBUTE, playerSession.getPlayerId());
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                // 쿠키 없음, 서명 불일치, 만료
+                log.debug("MarketHandshakeInterceptor: {}", e.toString());
+            }
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.sk.skala.stockapi.controller;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.sk.skala.stockapi.service.MarketBroadcaster;
+
+import lombok.RequiredArgsConstructor;
+
+// /ws/market: 서버에서 보내기만 한다 (시세 snapshot/prices, 보유 자산 portfolio)
+@Component
+@RequiredArgsConstructor
+public class MarketSocketHandler extends TextWebSocketHandler {
+
+    private final MarketBroadcaster marketBroadcaster;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        String playerId = (String) session.getAttributes().get(MarketHandshakeInterceptor.PLAYER_ID_ATTRIBUTE);
+        marketBroadcaster.register(session, playerId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        // 클라이언트 메시지는 받지 않는다
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        marketBroadcaster.unregister(session);
+    }
+}
@@ -15,10 +15,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sk.skala.stockapi.data.common.Response;
+import com.sk.skala.stockapi.data.dto.ConditionalOrder;
 import com.sk.skala.stockapi.data.dto.PlayerSession;
 import com.sk.skala.stockapi.data.dto.StockOrder;
 import com.sk.skala.stockapi.data.table.Player;
 import com.sk.skala.stockapi.service.PlayerService;
+import com.sk.skala.stockapi.service.RestingOrderService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,13 +31,19 @@ import lombok.RequiredArgsConstructor;
 public class PlayerController {
 
     private final PlayerService playerService;
+    private final RestingOrderService restingOrderService;
 
     // 전체 플레이어 목록 조회 API
     @Operation(summary = "플레이어 목록 조회", description = "전체 플레이어 목록을 페이징하여 조회합니다")
     @GetMapping("/list")
     public Response getAllPlayers(
             @Parameter(description = "페이지 오프셋", example = "0") @RequestParam(defaultValue = "0") int offset,
-            @Parameter(description = "페이지 크기", example = "10") @RequestParam(defaultValue = "10") int count) {
+            @Parameter(description = "페이지 크기", example = "10") @RequestParam(defaultValue = "10") int count,
+            @Parameter(description = "커서 토큰. 지정하면(첫 페이지는 빈 값) offset 대신 커서 방식으로 조회하고 응답의 next로 다음 페이지를 요청합니다")
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return playerService.getPlayersByCursor(cursor, count);
+        }
         return playerService.getAllPlayers(offset, count);
     }
 
@@ -87,4 +95,25 @@ public class PlayerController {
     public Response sellPlayerStock(@Valid @RequestBody StockOrder stockOrder) {
         return playerService.sellPlayerStock(stockOrder);
     }
+
+    // 지정가/stop 주문 등록
+    @Operation(summary = "조건 주문 등록", description = "지정가(LIMIT) 또는 stop(STOP) 주문을 등록합니다. 가격이 triggerPrice에 닿으면 그 시점 가격으로 매수/매도합니다")
+    @PostMapping("/orders")
+    public Response placeOrder(@Valid @RequestBody ConditionalOrder order) {
+        return restingOrderService.placeOrder(order);
+    }
+
+    // 대기 중인 조건 주문 목록
+    @Operation(summary = "조건 주문 목록", description = "로그인한 플레이어의 대기 중인 조건 주문을 조회합니다")
+    @GetMapping("/orders")
+    public Response getOpenOrders() {
+        return restingOrderService.getOpenOrders();
+    }
+
+    // 조건 주문 취소
+    @Operation(summary = "조건 주문 취소", description = "아직 발동하지 않은 조건 주문을 취소합니다")
+    @DeleteMapping("/orders/{orderId}")
+    public Response cancelOrder(@Parameter(description = "주문 ID", example = "1") @PathVariable Long orderId) {
+        return restingOrderService.cancelOrder(orderId);
+    }
 }
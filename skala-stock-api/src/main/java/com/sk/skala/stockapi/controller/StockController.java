@@ -33,7 +33,12 @@ public class StockController {
     @GetMapping("/list")
     public Response getAllStocks(
             @Parameter(description = "페이지 오프셋", example = "0") @RequestParam(defaultValue = "0") int offset,
-            @Parameter(description = "페이지 크기", example = "10") @RequestParam(defaultValue = "10") int count) {
+            @Parameter(description = "페이지 크기", example = "10") @RequestParam(defaultValue = "10") int count,
+            @Parameter(description = "커서 토큰. 지정하면(첫 페이지는 빈 값) offset 대신 커서 방식으로 조회하고 응답의 next로 다음 페이지를 요청합니다")
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return stockService.getStocksByCursor(cursor, count);
+        }
         return stockService.getAllStocks(offset, count);
     }
 
@@ -0,0 +1,68 @@
+package com.sk.skala.stockapi.data.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// 금액 값 타입. 소수 둘째 자리까지를 최소 단위(minor unit)로 보고 long 하나로 들고 있다 (100.25 -> 10025).
+// 연산은 long 정수 연산이라 반올림 오차가 쌓이지 않고, 넘치면 ArithmeticException이 난다.
+// JSON에서는 기존처럼 숫자(100.25)로 주고받는다.
+public record Money(long minor) implements Comparable<Money> {
+	public static final int SCALE = 2;
+	public static final Money ZERO = new Money(0L);
+
+	public static Money ofMinor(long minor) {
+		return new Money(minor);
+	}
+
+	// 소수 셋째 자리부터는 반올림한다
+	@JsonCreator
+	public static Money of(BigDecimal amount) {
+		return new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+	}
+
+	public static Money of(double amount) {
+		return of(BigDecimal.valueOf(amount));
+	}
+
+	public Money plus(Money other) {
+		return new Money(Math.addExact(minor, other.minor));
+	}
+
+	public Money minus(Money other) {
+		return new Money(Math.subtractExact(minor, other.minor));
+	}
+
+	public Money times(long quantity) {
+		return new Money(Math.multiplyExact(minor, quantity));
+	}
+
+	public boolean isLessThan(Money other) {
+		return minor < other.minor;
+	}
+
+	public boolean isNegative() {
+		return minor < 0;
+	}
+
+	public boolean isPositive() {
+		return minor > 0;
+	}
+
+	@JsonValue
+	public BigDecimal toDecimal() {
+		return BigDecimal.valueOf(minor, SCALE);
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(minor, other.minor);
+	}
+
+	@Override
+	public String toString() {
+		return toDecimal().toPlainString();
+	}
+}
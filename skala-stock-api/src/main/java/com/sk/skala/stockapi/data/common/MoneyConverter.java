@@ -0,0 +1,19 @@
+package com.sk.skala.stockapi.data.common;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Money <-> BIGINT(최소 단위) 컬럼
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+	@Override
+	public Long convertToDatabaseColumn(Money money) {
+		return money == null ? null : money.minor();
+	}
+
+	@Override
+	public Money convertToEntityAttribute(Long minor) {
+		return minor == null ? null : Money.ofMinor(minor);
+	}
+}
@@ -1,11 +1,37 @@
 package com.sk.skala.stockapi.data.common;
 
+import java.util.List;
+
 import lombok.Data;
 
+// 목록 응답.
+// offset 모드: total/offset이 채워진다.
+// cursor 모드: 전체 개수를 세지 않으므로 total은 null이고, 다음 페이지는 next 토큰으로 요청한다.
 @Data
-public class PagedList {
-	private long total;
+public class PagedList<T> {
+	private Long total;
 	private long count;
 	private long offset;
-	private Object list;
+	private List<T> list;
+	private boolean hasNext;
+	private String next;
+
+	public static <T> PagedList<T> ofOffset(List<T> list, long total, long offset, boolean hasNext) {
+		PagedList<T> pagedList = new PagedList<>();
+		pagedList.total = total;
+		pagedList.count = list.size();
+		pagedList.offset = offset;
+		pagedList.list = list;
+		pagedList.hasNext = hasNext;
+		return pagedList;
+	}
+
+	public static <T> PagedList<T> ofCursor(List<T> list, String next) {
+		PagedList<T> pagedList = new PagedList<>();
+		pagedList.count = list.size();
+		pagedList.list = list;
+		pagedList.hasNext = next != null;
+		pagedList.next = next;
+		return pagedList;
+	}
 }
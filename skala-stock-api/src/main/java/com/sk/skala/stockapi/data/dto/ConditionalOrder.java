@@ -0,0 +1,38 @@
+package com.sk.skala.stockapi.data.dto;
+
+import com.sk.skala.stockapi.data.common.Money;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+// 지정가/stop 주문 요청. 가격이 triggerPrice에 닿으면 그 시점의 가격으로 매수/매도한다
+// (지정가는 실행 시점의 가격이 triggerPrice보다 불리하면 체결하지 않고 다시 기다린다)
+// - BUY LIMIT: 가격 <= triggerPrice,  SELL LIMIT: 가격 >= triggerPrice
+// - BUY STOP:  가격 >= triggerPrice,  SELL STOP:  가격 <= triggerPrice (손절)
+@Data
+public class ConditionalOrder {
+	public enum Side {
+		BUY, SELL
+	}
+
+	public enum Type {
+		LIMIT, STOP
+	}
+
+	@NotNull(message = "stockId는 필수입니다")
+	private Long stockId;
+
+	@NotNull(message = "quantity는 필수입니다")
+	@Min(value = 1, message = "quantity는 1 이상이어야 합니다")
+	private Long quantity;
+
+	@NotNull(message = "side는 필수입니다")
+	private Side side;
+
+	@NotNull(message = "type은 필수입니다")
+	private Type type;
+
+	@NotNull(message = "triggerPrice는 필수입니다")
+	private Money triggerPrice;
+}
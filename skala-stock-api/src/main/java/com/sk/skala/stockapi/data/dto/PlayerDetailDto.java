@@ -2,6 +2,7 @@ package com.sk.skala.stockapi.data.dto;
 
 import java.util.List;
 
+import com.sk.skala.stockapi.data.common.Money;
 import com.sk.skala.stockapi.data.table.Player;
 
 import lombok.Data;
@@ -9,7 +10,7 @@ import lombok.Data;
 @Data
 public class PlayerDetailDto {
     private String playerId;
-    private Double playerMoney;
+    private Money playerMoney;
     private List<PlayerStockDto> holdings;
 
     public static PlayerDetailDto from(Player player, List<PlayerStockDto> holdings) {
@@ -1,5 +1,6 @@
 package com.sk.skala.stockapi.data.dto;
 
+import com.sk.skala.stockapi.data.common.Money;
 import com.sk.skala.stockapi.data.table.PlayerStock;
 
 import lombok.Data;
@@ -9,7 +10,7 @@ public class PlayerStockDto {
 
     private Long stockId;
     private String stockName;
-    private Double stockPrice;
+    private Money stockPrice;
     private Long quantity;
 
     public static PlayerStockDto from(PlayerStock ps) {
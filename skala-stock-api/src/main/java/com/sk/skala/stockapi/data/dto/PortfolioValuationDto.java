@@ -0,0 +1,20 @@
+package com.sk.skala.stockapi.data.dto;
+
+import java.util.List;
+
+import com.sk.skala.stockapi.data.common.Money;
+
+import lombok.Data;
+
+@Data
+public class PortfolioValuationDto {
+    public static final String PORTFOLIO = "portfolio";
+
+    private String type = PORTFOLIO;
+    private long timestamp;
+    private String playerId;
+    private Money playerMoney;
+    private Money stockValue; // 보유 주식 평가액 (실시간 가격 기준)
+    private Money totalValue; // playerMoney + stockValue
+    private List<PlayerStockDto> holdings;
+}
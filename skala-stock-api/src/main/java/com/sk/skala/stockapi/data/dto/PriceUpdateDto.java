@@ -0,0 +1,25 @@
+package com.sk.skala.stockapi.data.dto;
+
+import java.util.Map;
+
+import com.sk.skala.stockapi.data.common.Money;
+
+import lombok.Data;
+
+@Data
+public class PriceUpdateDto {
+    public static final String SNAPSHOT = "snapshot"; // 접속 직후 한 번: 전체 시세
+    public static final String PRICES = "prices"; // 이후 push 주기마다: 바뀐 종목만
+
+    private String type;
+    private long timestamp;
+    private Map<Long, Money> prices; // stockId -> 가격
+
+    public static PriceUpdateDto of(String type, Map<Long, Money> prices) {
+        PriceUpdateDto dto = new PriceUpdateDto();
+        dto.setType(type);
+        dto.setTimestamp(System.currentTimeMillis());
+        dto.setPrices(prices);
+        return dto;
+    }
+}
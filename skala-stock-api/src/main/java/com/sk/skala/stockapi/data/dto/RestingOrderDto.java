@@ -0,0 +1,17 @@
+package com.sk.skala.stockapi.data.dto;
+
+import com.sk.skala.stockapi.data.common.Money;
+
+import lombok.Data;
+
+@Data
+public class RestingOrderDto {
+    private Long orderId;
+    private String playerId;
+    private Long stockId;
+    private ConditionalOrder.Side side;
+    private ConditionalOrder.Type type;
+    private Money triggerPrice;
+    private Long quantity;
+    private long createdAt;
+}
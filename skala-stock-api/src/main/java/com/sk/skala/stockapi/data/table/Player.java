@@ -1,5 +1,8 @@
 package com.sk.skala.stockapi.data.table;
 
+import com.sk.skala.stockapi.data.common.Money;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotBlank;
@@ -21,10 +24,12 @@ public class Player {
 	@NotBlank(message = "playerPassword는 필수입니다")
 	private String playerPassword;
 	
+	// 최소 단위(소수 둘째 자리) BIGINT로 저장한다
 	@NotNull(message = "playerMoney는 필수입니다")
-	private Double playerMoney;
+	@Column(name = "player_money_minor")
+	private Money playerMoney;
 
-	public Player(String playerPassword, Double playerMoney) {
+	public Player(String playerPassword, Money playerMoney) {
 		this.playerId = java.util.UUID.randomUUID().toString();
 		this.playerPassword = playerPassword;
 		this.playerMoney = playerMoney;
@@ -1,12 +1,14 @@
 package com.sk.skala.stockapi.data.table;
 
+import com.sk.skala.stockapi.data.common.Money;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,11 +26,12 @@ public class Stock {
 	@NotBlank(message = "stockName은 필수입니다")
 	private String stockName;
 	
+	// 최소 단위(소수 둘째 자리) BIGINT로 저장한다. 0보다 커야 하는지는 StockService에서 검사한다
 	@NotNull(message = "stockPrice는 필수입니다")
-	@Positive(message = "stockPrice는 0보다 커야 합니다")
-	private Double stockPrice;
+	@Column(name = "stock_price_minor")
+	private Money stockPrice;
 
-	public Stock(String stockName, Double stockPrice) {
+	public Stock(String stockName, Money stockPrice) {
 		this.stockName = stockName;
 		this.stockPrice = stockPrice;
 	}
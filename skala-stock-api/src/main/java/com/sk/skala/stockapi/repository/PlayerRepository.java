@@ -1,6 +1,8 @@
 package com.sk.skala.stockapi.repository;
 
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.sk.skala.stockapi.data.table.Player;
@@ -8,4 +10,8 @@ import com.sk.skala.stockapi.data.table.Player;
 public interface PlayerRepository extends JpaRepository<Player, String> {
     Optional<Player> findByPlayerId(String playerId);
     boolean existsByPlayerId(String playerId);
+
+    // keyset 페이지네이션 (playerId 오름차순). Slice라 COUNT 쿼리가 나가지 않는다
+    Slice<Player> findAllByOrderByPlayerIdAsc(Pageable pageable);
+    Slice<Player> findByPlayerIdGreaterThanOrderByPlayerIdAsc(String playerId, Pageable pageable);
 }
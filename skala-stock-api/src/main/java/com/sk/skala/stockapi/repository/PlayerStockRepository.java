@@ -3,6 +3,8 @@ package com.sk.skala.stockapi.repository;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.sk.skala.stockapi.data.table.Player;
 import com.sk.skala.stockapi.data.table.PlayerStock;
@@ -13,4 +15,8 @@ public interface PlayerStockRepository extends JpaRepository<PlayerStock, Long>
     List<PlayerStock> findByPlayer_PlayerId(String playerId);
     Optional<PlayerStock> findByPlayerAndStock(Player player, Stock stock);
 
+    // 트랜잭션 밖에서도 종목명/가격을 읽을 수 있도록 stock을 같이 가져온다
+    @Query("select ps from PlayerStock ps join fetch ps.stock where ps.player.playerId = :playerId")
+    List<PlayerStock> findWithStockByPlayerId(@Param("playerId") String playerId);
+
 }
\ No newline at end of file
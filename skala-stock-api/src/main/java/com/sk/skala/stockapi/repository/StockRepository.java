@@ -1,5 +1,7 @@
 package com.sk.skala.stockapi.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
@@ -10,4 +12,8 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
     //Stock 엔터티를 관리하기 위해 JpaRepository 상속한 인터페이스 구현
     Optional<Stock> findByStockName(String keyword);
 
+    // keyset 페이지네이션 (id 내림차순). Slice라 COUNT 쿼리가 나가지 않는다
+    Slice<Stock> findAllByOrderByIdDesc(Pageable pageable);
+    Slice<Stock> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
 }
@@ -0,0 +1,382 @@
+package com.sk.skala.stockapi.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.config.ApplicationProperties.MarketFeedConfig;
+import com.sk.skala.stockapi.data.common.Money;
+import com.sk.skala.stockapi.data.dto.PlayerStockDto;
+import com.sk.skala.stockapi.data.dto.PortfolioValuationDto;
+import com.sk.skala.stockapi.data.dto.PriceUpdateDto;
+import com.sk.skala.stockapi.data.table.Player;
+import com.sk.skala.stockapi.data.table.PlayerStock;
+import com.sk.skala.stockapi.repository.PlayerRepository;
+import com.sk.skala.stockapi.repository.PlayerStockRepository;
+import com.sk.skala.stockapi.tools.JsonTool;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 접속 중인 플레이어에게 시세와 보유 자산 평가액을 push 한다.
+// - 시세: push 주기 동안의 변화를 모아(coalesce) 바뀐 종목만 보낸다. 메시지는 한 번만 직렬화해서 모든 세션에 같은 객체를 보낸다
+// - 평가액: 플레이어별로 한 번 계산/직렬화해서 그 플레이어의 세션들에 보낸다. 보유 내역은 거래가 있을 때만 DB에서 다시 읽는다
+// - 세션별 순서와 backpressure: 세션마다 보낼 메시지 큐가 있고 한 번에 가상 스레드 하나만 그 큐를 비우므로 넣은 순서대로 나간다.
+//   변경분(delta)은 앞 메시지를 받았다는 전제라 하나라도 버리면 화면이 틀어진다. 그래서 버퍼가 한도를 넘으면
+//   쌓인 메시지를 모두 버리고, 다음 push에서 그 세션에는 변경분 대신 전체 시세와 평가액을 보낸다.
+//   보내기 하나가 너무 오래 막히면 연결을 끊는다
+@Component
+@Slf4j
+public class MarketBroadcaster {
+	private final MarketFeedConfig config;
+	private final MarketSimulator marketSimulator;
+	private final PlayerRepository playerRepository;
+	private final PlayerStockRepository playerStockRepository;
+
+	private final Map<String, FeedSession> sessions = new ConcurrentHashMap<>(); // WebSocket session id -> 세션
+	private final Queue<FeedSession> joined = new ConcurrentLinkedQueue<>(); // 다음 push에서 처음 전체 시세를 받을 세션
+	private final Set<String> changedPlayers = ConcurrentHashMap.newKeySet(); // 보유 내역을 다시 읽어야 하는 플레이어
+
+	// 아래는 push 스레드에서만 다룬다
+	private final Map<String, Holdings> holdings = new HashMap<>();
+	private long[] lastSent = new long[0];
+
+	// 느린 세션 하나가 다른 세션 전송을 막지 않도록 보내기는 세션마다 가상 스레드에서 한다
+	private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+	private ScheduledExecutorService scheduler;
+
+	public MarketBroadcaster(ApplicationProperties applicationProperties, MarketSimulator marketSimulator,
+			PlayerRepository playerRepository, PlayerStockRepository playerStockRepository) {
+		this.config = applicationProperties.getMarketFeed();
+		this.marketSimulator = marketSimulator;
+		this.playerRepository = playerRepository;
+		this.playerStockRepository = playerStockRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("market-feed").daemon().factory());
+		scheduler.scheduleWithFixedDelay(this::pushSafely, config.getPushMillis(), config.getPushMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		sender.shutdownNow();
+	}
+
+	public void register(WebSocketSession session, String playerId) {
+		joined.add(new FeedSession(playerId, session));
+	}
+
+	public void unregister(WebSocketSession session) {
+		sessions.remove(session.getId());
+		joined.removeIf(s -> s.id().equals(session.getId()));
+	}
+
+	// 거래/자산 변경이 커밋된 뒤 호출한다. 다음 push에서 보유 내역을 다시 읽는다
+	public void markPlayerChanged(String playerId) {
+		changedPlayers.add(playerId);
+	}
+
+	public int sessionCount() {
+		return sessions.size() + joined.size();
+	}
+
+	void push() {
+		long[] prices = marketSimulator.livePriceSnapshot();
+
+		List<FeedSession> newcomers = new ArrayList<>();
+		for (FeedSession s = joined.poll(); s != null; s = joined.poll()) {
+			newcomers.add(s);
+		}
+
+		// 메시지를 버린 세션은 새 세션처럼 전체 시세부터 다시 받는다. 보내기가 막힌 세션은 끊는다
+		long now = System.currentTimeMillis();
+		List<FeedSession> current = new ArrayList<>(sessions.size());
+		for (FeedSession s : sessions.values()) {
+			if (s.isStalled(now)) {
+				log.info("MarketBroadcaster: closing slow session {} (send blocked over {}ms)", s.id(),
+						config.getSendTimeLimitMillis());
+				sessions.remove(s.id());
+				close(s, CloseStatus.SESSION_NOT_RELIABLE);
+			} else if (s.needsSnapshot) {
+				newcomers.add(s);
+			} else {
+				current.add(s);
+			}
+		}
+
+		// 기존 세션: 바뀐 종목만
+		Map<Long, Money> changed = new LinkedHashMap<>();
+		for (int id = 1; id < prices.length; id++) {
+			if (prices[id] > 0 && (id >= lastSent.length || prices[id] != lastSent[id])) {
+				changed.put((long) id, Money.ofMinor(prices[id]));
+			}
+		}
+		if (!changed.isEmpty() && !current.isEmpty()) {
+			fanOut(current, toMessage(PriceUpdateDto.of(PriceUpdateDto.PRICES, changed)));
+		}
+		lastSent = prices;
+
+		// 새 세션과 다시 맞출 세션: 전체 시세 (여럿이어도 한 번만 직렬화)
+		if (!newcomers.isEmpty()) {
+			Map<Long, Money> all = new LinkedHashMap<>();
+			for (int id = 1; id < prices.length; id++) {
+				if (prices[id] > 0) {
+					all.put((long) id, Money.ofMinor(prices[id]));
+				}
+			}
+			TextMessage snapshot = toMessage(PriceUpdateDto.of(PriceUpdateDto.SNAPSHOT, all));
+			for (FeedSession s : newcomers) {
+				s.resync(snapshot);
+				if (s.session().isOpen()) {
+					sessions.put(s.id(), s);
+				}
+			}
+		}
+
+		pushValuations(prices, newcomers);
+	}
+
+	private void pushValuations(long[] prices, List<FeedSession> newcomers) {
+		Map<String, List<FeedSession>> byPlayer = new HashMap<>();
+		for (FeedSession s : sessions.values()) {
+			byPlayer.computeIfAbsent(s.playerId(), k -> new ArrayList<>()).add(s);
+		}
+		Set<String> fresh = new HashSet<>();
+		for (FeedSession s : newcomers) {
+			fresh.add(s.playerId());
+		}
+
+		// 접속이 끊긴 플레이어의 캐시와 변경 표시는 정리한다 (다시 접속하면 새로 읽는다)
+		holdings.keySet().retainAll(byPlayer.keySet());
+		changedPlayers.retainAll(byPlayer.keySet());
+
+		for (Map.Entry<String, List<FeedSession>> entry : byPlayer.entrySet()) {
+			String playerId = entry.getKey();
+			Holdings current = holdings.get(playerId);
+			boolean marked = changedPlayers.remove(playerId);
+			boolean reloaded = current == null || marked;
+			if (reloaded) {
+				current = loadHoldings(playerId);
+				if (current == null) {
+					holdings.remove(playerId);
+					continue;
+				}
+				holdings.put(playerId, current);
+			}
+
+			PortfolioValuationDto valuation = current.valuate(playerId, prices);
+			long total = valuation.getTotalValue().minor();
+			if (reloaded || fresh.contains(playerId) || total != current.lastSentTotal) {
+				current.lastSentTotal = total;
+				fanOut(entry.getValue(), toMessage(valuation));
+			}
+		}
+	}
+
+	private Holdings loadHoldings(String playerId) {
+		Player player = playerRepository.findByPlayerId(playerId).orElse(null);
+		if (player == null) {
+			return null;
+		}
+		List<Holding> items = new ArrayList<>();
+		for (PlayerStock ps : playerStockRepository.findWithStockByPlayerId(playerId)) {
+			items.add(new Holding(ps.getStock().getId(), ps.getStock().getStockName(), ps.getStock().getStockPrice(),
+					ps.getQuantity()));
+		}
+		return new Holdings(player.getPlayerMoney(), items);
+	}
+
+	private void fanOut(Collection<FeedSession> targets, TextMessage message) {
+		for (FeedSession target : targets) {
+			target.enqueue(message);
+		}
+	}
+
+	private static void close(FeedSession target, CloseStatus status) {
+		try {
+			target.session().close(status);
+		} catch (IOException | RuntimeException e) {
+			// 이미 닫혔다
+		}
+	}
+
+	// 바이트로 만들어 두면 버퍼 크기를 셀 때마다 다시 인코딩하지 않는다
+	private static TextMessage toMessage(Object payload) {
+		return new TextMessage(JsonTool.toString(payload).getBytes(StandardCharsets.UTF_8));
+	}
+
+	// 예약 작업은 예외가 나면 다음 실행이 취소되므로 여기서 잡는다
+	private void pushSafely() {
+		try {
+			push();
+		} catch (RuntimeException e) {
+			log.error("MarketBroadcaster.push: {}", e.toString());
+		}
+	}
+
+	// 접속 하나. 메시지는 push 스레드만 넣고, 한 번에 가상 스레드 하나만 꺼내 보낸다
+	private final class FeedSession {
+		private final String playerId;
+		private final WebSocketSession session;
+		private final Queue<TextMessage> outbox = new ConcurrentLinkedQueue<>();
+		private final AtomicLong queuedBytes = new AtomicLong();
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile long sendingSince; // 보내는 중인 메시지를 넘긴 시각. 0이면 보내는 중이 아니다
+		private boolean needsSnapshot; // push 스레드에서만 다룬다
+
+		private FeedSession(String playerId, WebSocketSession session) {
+			this.playerId = playerId;
+			this.session = session;
+		}
+
+		String playerId() {
+			return playerId;
+		}
+
+		WebSocketSession session() {
+			return session;
+		}
+
+		String id() {
+			return session.getId();
+		}
+
+		boolean isStalled(long now) {
+			long since = sendingSince;
+			return since != 0 && now - since > config.getSendTimeLimitMillis();
+		}
+
+		// 버퍼가 넘치면 쌓인 것을 모두 버리고 다음 push에서 전체 시세를 받게 한다. 그 전까지 오는 메시지도 버린다
+		void enqueue(TextMessage message) {
+			if (needsSnapshot) {
+				return;
+			}
+			if (queuedBytes.get() + message.getPayloadLength() > config.getSendBufferBytes()) {
+				discardQueued();
+				needsSnapshot = true;
+				return;
+			}
+			offer(message);
+		}
+
+		// 안 보낸 메시지는 전체 시세가 대신하므로 버리고, 한도와 상관없이 전체 시세를 넣는다
+		void resync(TextMessage snapshot) {
+			discardQueued();
+			needsSnapshot = false;
+			offer(snapshot);
+		}
+
+		private void offer(TextMessage message) {
+			queuedBytes.addAndGet(message.getPayloadLength());
+			outbox.add(message);
+			if (draining.compareAndSet(false, true)) {
+				sender.execute(this::drain);
+			}
+		}
+
+		private void discardQueued() {
+			for (TextMessage m = outbox.poll(); m != null; m = outbox.poll()) {
+				queuedBytes.addAndGet(-m.getPayloadLength());
+			}
+		}
+
+		// 큐가 빈 것을 보고 draining을 내린 사이에 들어온 메시지가 있으면 다시 잡아 이어서 보낸다
+		private void drain() {
+			do {
+				for (TextMessage m = outbox.poll(); m != null; m = outbox.poll()) {
+					queuedBytes.addAndGet(-m.getPayloadLength());
+					if (!send(m)) {
+						return; // 닫은 세션: draining을 내리지 않아 더 보내지 않는다
+					}
+				}
+				draining.set(false);
+			} while (!outbox.isEmpty() && draining.compareAndSet(false, true));
+		}
+
+		private boolean send(TextMessage message) {
+			sendingSince = System.currentTimeMillis();
+			try {
+				session.sendMessage(message);
+				return true;
+			} catch (IOException | RuntimeException e) {
+				log.debug("MarketBroadcaster.send: {} {}", id(), e.toString());
+				sessions.remove(id());
+				close(this, CloseStatus.SERVER_ERROR);
+				return false;
+			} finally {
+				sendingSince = 0;
+			}
+		}
+	}
+
+	// stockPrice는 시뮬레이터가 추적하지 않는 종목일 때 쓰는 DB 가격
+	private record Holding(long stockId, String stockName, Money stockPrice, long quantity) {
+	}
+
+	private static final class Holdings {
+		private final Money playerMoney;
+		private final List<Holding> items;
+		private long lastSentTotal = Long.MIN_VALUE;
+
+		private Holdings(Money playerMoney, List<Holding> items) {
+			this.playerMoney = playerMoney;
+			this.items = items;
+		}
+
+		private PortfolioValuationDto valuate(String playerId, long[] prices) {
+			Money stockValue = Money.ZERO;
+			List<PlayerStockDto> dtos = new ArrayList<>(items.size());
+			for (Holding item : items) {
+				long live = item.stockId() < prices.length ? prices[(int) item.stockId()] : 0L;
+				Money price = live > 0 ? Money.ofMinor(live) : item.stockPrice();
+				stockValue = stockValue.plus(price.times(item.quantity()));
+
+				PlayerStockDto dto = new PlayerStockDto();
+				dto.setStockId(item.stockId());
+				dto.setStockName(item.stockName());
+				dto.setStockPrice(price);
+				dto.setQuantity(item.quantity());
+				dtos.add(dto);
+			}
+
+			PortfolioValuationDto valuation = new PortfolioValuationDto();
+			valuation.setTimestamp(System.currentTimeMillis());
+			valuation.setPlayerId(playerId);
+			valuation.setPlayerMoney(playerMoney);
+			valuation.setStockValue(stockValue);
+			valuation.setTotalValue(playerMoney.plus(stockValue));
+			valuation.setHoldings(dtos);
+			return valuation;
+		}
+	}
+}
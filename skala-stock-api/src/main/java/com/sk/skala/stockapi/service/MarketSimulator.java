@@ -0,0 +1,228 @@
+package com.sk.skala.stockapi.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.config.ApplicationProperties.MarketConfig;
+import com.sk.skala.stockapi.data.common.Money;
+import com.sk.skala.stockapi.data.table.Stock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// 주가 시뮬레이터.
+// 모든 종목 가격을 기하 브라운 운동(GBM)으로 tick마다 움직인다: S' = S * exp((mu - sigma^2/2)dt + sigma*sqrt(dt)*Z)
+// 실시간 가격은 stock id를 인덱스로 하는 long 배열(최소 단위)에 있고, 매수/매도는 여기서 가격을 읽는다.
+// DB에는 persist 주기마다 한 번에 batch UPDATE로 반영한다 (그 사이 DB 가격은 최대 한 주기만큼 늦다).
+@Component
+@Slf4j
+public class MarketSimulator {
+	private static final String UPDATE_PRICE_SQL = "UPDATE stock SET stock_price_minor = ? WHERE id = ?";
+	private static final int PERSIST_BATCH_SIZE = 1_000;
+	private static final double MILLIS_PER_HOUR = 3_600_000.0;
+	private static final int INITIAL_CAPACITY = 1_024;
+
+	private final MarketConfig config;
+	private final JdbcTemplate jdbc;
+	private final SplittableRandom random = new SplittableRandom();
+
+	// 읽기는 락 없이 한다. 0 이하는 추적하지 않는 id
+	private volatile AtomicLongArray livePrices = new AtomicLongArray(INITIAL_CAPACITY);
+	// 아래는 this 락 안에서만 바꾼다. exact는 반올림 오차가 쌓이지 않도록 double로 들고 있는 실제 상태
+	private double[] exact = new double[INITIAL_CAPACITY];
+	private volatile int maxTrackedId;
+
+	private ScheduledExecutorService scheduler;
+	private final List<Runnable> tickListeners = new CopyOnWriteArrayList<>();
+
+	public MarketSimulator(ApplicationProperties applicationProperties, DataSource dataSource) {
+		this.config = applicationProperties.getMarket();
+		this.jdbc = new JdbcTemplate(dataSource);
+	}
+
+	// 초기 데이터(DataInitializer)까지 들어간 뒤에 시작한다
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!config.isEnabled()) {
+			return;
+		}
+		jdbc.query("SELECT id, stock_price_minor FROM stock", rs -> {
+			track(rs.getLong(1), Money.ofMinor(rs.getLong(2)));
+		});
+
+		scheduler = Executors.newScheduledThreadPool(2, Thread.ofPlatform().name("market-", 0).daemon().factory());
+		scheduler.scheduleAtFixedRate(this::tickSafely, config.getTickMillis(), config.getTickMillis(),
+				TimeUnit.MILLISECONDS);
+		scheduler.scheduleWithFixedDelay(this::persistSafely, config.getPersistMillis(), config.getPersistMillis(),
+				TimeUnit.MILLISECONDS);
+		log.info("MarketSimulator: started tick={}ms persist={}ms stocks<={}", config.getTickMillis(),
+				config.getPersistMillis(), maxTrackedId);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		persistSafely(); // 마지막 가격까지 남긴다
+	}
+
+	// 매수/매도 체결 가격. 시뮬레이터가 추적하지 않는 종목이면 엔티티 가격 그대로
+	public Money priceOf(Stock stock) {
+		if (stock.getId() != null) {
+			long live = livePrice(stock.getId());
+			if (live > 0) {
+				return Money.ofMinor(live);
+			}
+		}
+		return stock.getStockPrice();
+	}
+
+	public long livePrice(long stockId) {
+		AtomicLongArray prices = livePrices;
+		return stockId >= 0 && stockId < prices.length() ? prices.get((int) stockId) : 0L;
+	}
+
+	// tick이 끝난 직후 시뮬레이터 스레드에서(락 밖) 호출된다. 다음 tick을 늦추지 않도록 오래 걸리는 일은 다른 스레드로 넘긴다
+	public void addTickListener(Runnable listener) {
+		tickListeners.add(listener);
+	}
+
+	// 브로드캐스트용: 현재 가격을 stock id 인덱스 배열로 복사한다 (0은 추적하지 않는 id)
+	public long[] livePriceSnapshot() {
+		AtomicLongArray prices = livePrices;
+		long[] snapshot = new long[Math.min(maxTrackedId + 1, prices.length())];
+		for (int id = 1; id < snapshot.length; id++) {
+			snapshot[id] = prices.get(id);
+		}
+		return snapshot;
+	}
+
+	// 종목 등록/가격 수정 시 호출 (관리자가 정한 가격에서 다시 움직이기 시작한다)
+	public synchronized void track(long stockId, Money price) {
+		if (!config.isEnabled() || stockId <= 0 || stockId > config.getMaxStockId() || price == null
+				|| !price.isPositive()) {
+			return;
+		}
+		int id = (int) stockId;
+		ensureCapacity(id);
+		exact[id] = price.minor();
+		livePrices.set(id, price.minor());
+		maxTrackedId = Math.max(maxTrackedId, id);
+	}
+
+	public synchronized void untrack(long stockId) {
+		if (stockId > 0 && stockId < exact.length) {
+			exact[(int) stockId] = 0;
+			livePrices.set((int) stockId, 0L);
+		}
+	}
+
+	synchronized void tick() {
+		double dt = config.getTickMillis() / MILLIS_PER_HOUR;
+		double sigma = config.getVolatility();
+		double driftTerm = (config.getDrift() - sigma * sigma / 2) * dt;
+		double volTerm = sigma * Math.sqrt(dt);
+
+		AtomicLongArray prices = livePrices;
+		for (int id = 1; id <= maxTrackedId; id++) {
+			double price = exact[id];
+			if (price <= 0) {
+				continue;
+			}
+			price *= Math.exp(driftTerm + volTerm * random.nextGaussian());
+			price = Math.max(price, 1.0); // 최소 단위 1 아래로는 내려가지 않는다
+			exact[id] = price;
+			prices.set(id, Math.round(price));
+		}
+	}
+
+	// 추적 중인 종목 가격을 1,000건씩 batch UPDATE
+	void persist() {
+		AtomicLongArray prices = livePrices;
+		int[] ids = new int[maxTrackedId];
+		int n = 0;
+		for (int id = 1; id < prices.length() && n < ids.length; id++) {
+			if (prices.get(id) > 0) {
+				ids[n++] = id;
+			}
+		}
+
+		for (int from = 0; from < n; from += PERSIST_BATCH_SIZE) {
+			int[] chunk = Arrays.copyOfRange(ids, from, Math.min(from + PERSIST_BATCH_SIZE, n));
+			jdbc.batchUpdate(UPDATE_PRICE_SQL, new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					ps.setLong(1, prices.get(chunk[i]));
+					ps.setLong(2, chunk[i]);
+				}
+
+				@Override
+				public int getBatchSize() {
+					return chunk.length;
+				}
+			});
+		}
+	}
+
+	private void ensureCapacity(int id) {
+		if (id < exact.length) {
+			return;
+		}
+		int capacity = Math.min(Math.max(id + 1, exact.length * 2), config.getMaxStockId() + 1);
+		exact = Arrays.copyOf(exact, capacity);
+		AtomicLongArray old = livePrices;
+		AtomicLongArray grown = new AtomicLongArray(capacity);
+		for (int i = 0; i < old.length(); i++) {
+			grown.set(i, old.get(i));
+		}
+		livePrices = grown;
+	}
+
+	// 예약 작업은 예외가 나면 다음 실행이 취소되므로 여기서 잡는다
+	private void tickSafely() {
+		try {
+			tick();
+		} catch (RuntimeException e) {
+			log.error("MarketSimulator.tick: {}", e.toString());
+		}
+		for (Runnable listener : tickListeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				log.error("MarketSimulator.tickListener: {}", e.toString());
+			}
+		}
+	}
+
+	private void persistSafely() {
+		try {
+			persist();
+		} catch (RuntimeException e) {
+			log.error("MarketSimulator.persist: {}", e.toString());
+		}
+	}
+}
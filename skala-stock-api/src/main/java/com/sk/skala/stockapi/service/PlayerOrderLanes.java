@@ -0,0 +1,67 @@
+package com.sk.skala.stockapi.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// 플레이어별 주문 실행 레인.
+// 같은 playerId의 작업은 들어온 순서대로 하나씩 실행하고, 다른 플레이어의 작업은 서로 기다리지 않는다.
+// 레인은 이전 작업의 future 뒤에 다음 작업을 잇는 방식이라 별도 스레드를 붙잡지 않는다 (작업은 가상 스레드에서 실행).
+// 순서 보장은 이 인스턴스 안에서만 유효하다.
+@Component
+public class PlayerOrderLanes {
+	private static final CompletableFuture<Object> IDLE = CompletableFuture.completedFuture(null);
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Map<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+	// 레인에서 실행하고 끝날 때까지 기다린다. 작업에서 난 예외는 그대로 다시 던진다
+	public <T> T execute(String playerId, Supplier<T> task) {
+		try {
+			return submit(playerId, task).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+	public <T> CompletableFuture<T> submit(String playerId, Supplier<T> task) {
+		AtomicReference<CompletableFuture<T>> next = new AtomicReference<>();
+		// compute는 키 단위로 원자적이므로 같은 플레이어의 작업 순서가 여기서 정해진다
+		tails.compute(playerId, (id, tail) -> {
+			CompletableFuture<?> previous = tail == null ? IDLE : tail;
+			// 앞 작업이 실패해도 다음 작업은 실행한다
+			CompletableFuture<T> queued = previous.handle((result, error) -> null)
+					.thenApplyAsync(ignored -> task.get(), executor);
+			next.set(queued);
+			return queued;
+		});
+		CompletableFuture<T> future = next.get();
+		// 뒤에 이어진 작업이 없으면 레인을 정리한다 (이어졌으면 tail이 바뀌어 있어 지워지지 않는다)
+		future.whenComplete((result, error) -> tails.remove(playerId, future));
+		return future;
+	}
+
+	int activeLanes() {
+		return tails.size();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.close();
+	}
+}
@@ -2,13 +2,18 @@ package com.sk.skala.stockapi.service;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.sk.skala.stockapi.data.common.Money;
+import com.sk.skala.stockapi.data.common.PagedList;
 import com.sk.skala.stockapi.data.common.Response;
 import com.sk.skala.stockapi.config.Error;
 import com.sk.skala.stockapi.data.table.Player;
@@ -19,13 +24,12 @@ import com.sk.skala.stockapi.data.dto.PlayerSession;
 import com.sk.skala.stockapi.data.dto.PlayerStockDto;
 import com.sk.skala.stockapi.data.dto.StockOrder;
 
-import java.util.HashMap;
-import java.util.Map;
 import com.sk.skala.stockapi.exception.ParameterException;
 import com.sk.skala.stockapi.exception.ResponseException;
 import com.sk.skala.stockapi.repository.PlayerRepository;
 import com.sk.skala.stockapi.repository.PlayerStockRepository;
 import com.sk.skala.stockapi.repository.StockRepository;
+import com.sk.skala.stockapi.tools.CursorTool;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -33,10 +37,16 @@ import lombok.RequiredArgsConstructor;
 @Service
 @RequiredArgsConstructor
 public class PlayerService {
+    private static final String PLAYER_CURSOR = "player";
+
     private final StockRepository stockRepository;
     private final PlayerRepository playerRepository;
     private final PlayerStockRepository playerStockRepository;
     private final SessionHandler sessionHandler;
+    private final PlayerOrderLanes playerOrderLanes;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketSimulator marketSimulator;
+    private final MarketBroadcaster marketBroadcaster;
 
     // 전체 플레이어 목록 조회
     public Response getAllPlayers(int offset, int count) {
@@ -45,10 +55,23 @@ public class PlayerService {
         Pageable pageable = PageRequest.of(offset, count);
         Page<Player> page = playerRepository.findAll(pageable);
 
-        Object pagedList = toPagedList(page, offset, count);
+        return Response.ok(PagedList.ofOffset(page.getContent(), page.getTotalElements(), offset, page.hasNext()));
+
+    }
 
-        return Response.ok(pagedList);
+    // 커서(keyset) 방식 플레이어 목록 조회: 마지막으로 받은 playerId 다음부터 읽고 전체 개수는 세지 않는다
+    public Response getPlayersByCursor(String cursor, int count) {
+        validatePaging(0, count);
 
+        String lastPlayerId = CursorTool.decode(PLAYER_CURSOR, cursor);
+        Pageable pageable = PageRequest.of(0, count);
+        Slice<Player> slice = lastPlayerId == null
+                ? playerRepository.findAllByOrderByPlayerIdAsc(pageable)
+                : playerRepository.findByPlayerIdGreaterThanOrderByPlayerIdAsc(lastPlayerId, pageable);
+
+        List<Player> players = slice.getContent();
+        String next = slice.hasNext() ? CursorTool.encode(PLAYER_CURSOR, players.get(players.size() - 1).getPlayerId()) : null;
+        return Response.ok(PagedList.ofCursor(players, next));
     }
 
     // 단일 플레이어 및 주식 목록
@@ -65,7 +88,12 @@ public class PlayerService {
 
         // Stream API로 DTO 리스트 변환
         List<PlayerStockDto> holdingDtos = holdings.stream()
-                .map(ps -> PlayerStockDto.from(ps))
+                .map(ps -> {
+                    PlayerStockDto dto = PlayerStockDto.from(ps);
+                    // 관리 중인 엔티티는 건드리지 않고 DTO에만 실시간 가격을 넣는다
+                    dto.setStockPrice(marketSimulator.priceOf(ps.getStock()));
+                    return dto;
+                })
                 .collect(Collectors.toList());
         
         PlayerDetailDto body = PlayerDetailDto.from(player, holdingDtos);
@@ -81,10 +109,10 @@ public class PlayerService {
 
         String playerId = player.getPlayerId();
         String playerPassword = player.getPlayerPassword();
-        Double playerMoney = player.getPlayerMoney();
+        Money playerMoney = player.getPlayerMoney();
 
         // 초기 자산 유효성 검사
-        if (playerMoney == null || playerMoney <= 0) {
+        if (playerMoney == null || !playerMoney.isPositive()) {
             throw new ParameterException("playerMoney");
         }
 
@@ -140,17 +168,20 @@ public class PlayerService {
             throw new ParameterException("playerId");
         }
 
-        if (player.getPlayerMoney() == null || player.getPlayerMoney() < 0) {
+        if (player.getPlayerMoney() == null || player.getPlayerMoney().isNegative()) {
             throw new ParameterException("playerMoney");
         }   
 
-        Player existing = playerRepository.findByPlayerId(player.getPlayerId())
-                .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
-
-        // 자산 업데이트
-        existing.setPlayerMoney(player.getPlayerMoney());
+        // 자산을 바꾸므로 같은 플레이어의 매수/매도와 같은 레인에서 실행한다
+        Player saved = playerOrderLanes.execute(player.getPlayerId(), () -> transactionTemplate.execute(status -> {
+            Player existing = playerRepository.findByPlayerId(player.getPlayerId())
+                    .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
-        Player saved = playerRepository.save(existing);
+            // 자산 업데이트
+            existing.setPlayerMoney(player.getPlayerMoney());
+            return playerRepository.save(existing);
+        }));
+        marketBroadcaster.markPlayerChanged(player.getPlayerId());
         saved.setPlayerPassword(null);
 
         return Response.ok(saved);
@@ -172,7 +203,7 @@ public class PlayerService {
     }
 
     // 주식 매수
-    @Transactional
+    // 세션은 요청 스레드에서 읽고, 잔액/수량 변경은 플레이어 레인에서 한 트랜잭션으로 실행한다
     public Response buyPlayerStock(StockOrder order) {
         validateOrder(order);
 
@@ -180,6 +211,14 @@ public class PlayerService {
         String playerId = sessionHandler.getPlayerId()
                 .orElseThrow(() -> new ResponseException(Error.NOT_AUTHENTICATED));
 
+        Response response = playerOrderLanes.execute(playerId, () -> transactionTemplate.execute(status -> buy(playerId, order, null)));
+        // 커밋된 뒤에 알려야 접속 중인 화면이 바뀐 보유 내역을 읽는다
+        marketBroadcaster.markPlayerChanged(playerId);
+        return response;
+    }
+
+    // limitPrice가 있으면(지정가 주문) 실시간 가격이 그보다 비쌀 때 체결하지 않는다
+    private Response buy(String playerId, StockOrder order, Money limitPrice) {
         Player player = playerRepository.findByPlayerId(playerId)
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
@@ -187,15 +226,20 @@ public class PlayerService {
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
         long qty = order.getQuantity();
-        long totalCost = stock.getStockPrice().longValue() * qty;
+        // 체결 가격은 시뮬레이터의 실시간 가격
+        Money price = marketSimulator.priceOf(stock);
+        if (limitPrice != null && limitPrice.isLessThan(price)) {
+            throw new ResponseException(Error.LIMIT_NOT_MET);
+        }
+        Money totalCost = price.times(qty);
 
         // 잔액 부족 체크
-        if (player.getPlayerMoney() < totalCost) {
+        if (player.getPlayerMoney().isLessThan(totalCost)) {
             throw new ResponseException(Error.INSUFFICIENT_FUNDS);
         }
 
         // 플레이어 자산 차감
-        player.setPlayerMoney(player.getPlayerMoney() - totalCost);
+        player.setPlayerMoney(player.getPlayerMoney().minus(totalCost));
 
         // 보유 주식이면 수량 추가, 없으면 신규 생성
         PlayerStock playerStock = playerStockRepository.findByPlayerAndStock(player, stock)
@@ -217,7 +261,6 @@ public class PlayerService {
     }
 
     // 주식 매도
-    @Transactional
     public Response sellPlayerStock(StockOrder order) {
         validateOrder(order);
 
@@ -225,6 +268,21 @@ public class PlayerService {
         String playerId = sessionHandler.getPlayerId()
                 .orElseThrow(() -> new ResponseException(Error.NOT_AUTHENTICATED));
 
+        Response response = playerOrderLanes.execute(playerId, () -> transactionTemplate.execute(status -> sell(playerId, order, null)));
+        marketBroadcaster.markPlayerChanged(playerId);
+        return response;
+    }
+
+    // 지정가/stop 주문이 발동했을 때: 즉시 매수/매도와 같은 규칙(레인 + 트랜잭션, 실시간 가격)으로 실행한다
+    // 시뮬레이터 스레드에서 부르므로 끝나기를 기다리지 않는다. 레인에 차례가 올 때 가격이 limitPrice를 벗어났으면 LIMIT_NOT_MET
+    CompletableFuture<Response> submitTriggeredOrder(String playerId, StockOrder order, boolean buy, Money limitPrice) {
+        return playerOrderLanes.submit(playerId, () -> transactionTemplate.execute(
+                status -> buy ? buy(playerId, order, limitPrice) : sell(playerId, order, limitPrice)))
+                .whenComplete((response, error) -> marketBroadcaster.markPlayerChanged(playerId));
+    }
+
+    // limitPrice가 있으면(지정가 주문) 실시간 가격이 그보다 쌀 때 체결하지 않는다
+    private Response sell(String playerId, StockOrder order, Money limitPrice) {
         Player player = playerRepository.findByPlayerId(playerId)
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
@@ -235,7 +293,10 @@ public class PlayerService {
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
         long qty = order.getQuantity();
-
+        Money price = marketSimulator.priceOf(stock);
+        if (limitPrice != null && price.isLessThan(limitPrice)) {
+            throw new ResponseException(Error.LIMIT_NOT_MET);
+        }
 
         // 보유 수량 검증
         if (playerStock.getQuantity() < qty) {
@@ -252,8 +313,8 @@ public class PlayerService {
         }
 
         // 매도 금액만큼 자산 증가
-        long proceeds = stock.getStockPrice().longValue() * qty;
-        player.setPlayerMoney(player.getPlayerMoney() + proceeds);
+        Money proceeds = price.times(qty);
+        player.setPlayerMoney(player.getPlayerMoney().plus(proceeds));
         playerRepository.save(player);
         return Response.ok(true);
     }
@@ -283,16 +344,4 @@ public class PlayerService {
     private boolean isBlank(String str) {
         return str == null || str.trim().isEmpty();
     }
-
-    private Object toPagedList(Page<?> page, int offset, int count) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", page.getContent());
-        result.put("totalElements", page.getTotalElements());
-        result.put("totalPages", page.getTotalPages());
-        result.put("currentPage", offset);
-        result.put("pageSize", count);
-        result.put("hasNext", page.hasNext());
-        result.put("hasPrevious", page.hasPrevious());
-        return result;
-    }
 }
\ No newline at end of file
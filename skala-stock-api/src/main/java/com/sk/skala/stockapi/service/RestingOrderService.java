@@ -0,0 +1,361 @@
+package com.sk.skala.stockapi.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.sk.skala.stockapi.config.ApplicationProperties;
+import com.sk.skala.stockapi.config.Error;
+import com.sk.skala.stockapi.data.common.Money;
+import com.sk.skala.stockapi.data.common.Response;
+import com.sk.skala.stockapi.data.dto.ConditionalOrder;
+import com.sk.skala.stockapi.data.dto.RestingOrderDto;
+import com.sk.skala.stockapi.data.dto.StockOrder;
+import com.sk.skala.stockapi.exception.ParameterException;
+import com.sk.skala.stockapi.exception.ResponseException;
+import com.sk.skala.stockapi.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+// 대기 중인 지정가/stop 주문.
+// 종목마다 발동 가격으로 정렬된 TreeMap 두 개(내려와서 발동 / 올라가서 발동)를 두고,
+// 시뮬레이터 tick마다 현재 가격을 넘어선 구간만 잘라 꺼낸다: 종목당 O(log n + k), 나머지 주문은 보지 않는다.
+// 발동한 주문은 즉시 매수/매도와 같은 규칙(플레이어 레인 + 트랜잭션, 그 시점의 실시간 가격)으로 실행한다.
+// 지정가 주문은 레인에서 실행될 때 가격이 지정가보다 불리해졌으면 체결하지 않고 책에 되돌린다.
+// 주문은 메모리에만 있으므로 재시작하면 사라진다.
+@Slf4j
+@Service
+public class RestingOrderService {
+
+    private final int maxOpenOrdersPerPlayer;
+    private final MarketSimulator marketSimulator;
+    private final PlayerService playerService;
+    private final SessionHandler sessionHandler;
+    private final StockRepository stockRepository;
+
+    private final AtomicLong sequence = new AtomicLong();
+    // 주문의 주인: 여기서 먼저 지운 쪽(발동 또는 취소)만 그 주문을 처리한다
+    private final Map<Long, RestingOrder> orders = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> ordersByPlayer = new ConcurrentHashMap<>();
+    private final Map<Long, TriggerBook> books = new ConcurrentHashMap<>();
+
+    public RestingOrderService(ApplicationProperties applicationProperties, MarketSimulator marketSimulator,
+            PlayerService playerService, SessionHandler sessionHandler, StockRepository stockRepository) {
+        this.maxOpenOrdersPerPlayer = applicationProperties.getMarket().getMaxOpenOrdersPerPlayer();
+        this.marketSimulator = marketSimulator;
+        this.playerService = playerService;
+        this.sessionHandler = sessionHandler;
+        this.stockRepository = stockRepository;
+    }
+
+    // 생성자에서 등록하면 다 만들어지기 전의 this가 시뮬레이터 스레드에 넘어간다
+    @PostConstruct
+    void registerTickListener() {
+        marketSimulator.addTickListener(this::onTick);
+    }
+
+    // 조건 주문 등록
+    public Response placeOrder(ConditionalOrder request) {
+        validateOrder(request);
+
+        String playerId = sessionHandler.getPlayerId()
+                .orElseThrow(() -> new ResponseException(Error.NOT_AUTHENTICATED));
+
+        if (!stockRepository.existsById(request.getStockId())) {
+            throw new ResponseException(Error.DATA_NOT_FOUND);
+        }
+        // 시뮬레이터가 추적하지 않는 종목(꺼져 있거나 가격이 없는 경우)은 tick에서 보지 않으므로 영원히 발동하지 않는다
+        if (marketSimulator.livePrice(request.getStockId()) <= 0) {
+            throw new ResponseException(Error.INVALID_PARAMETER, "stock is not traded");
+        }
+
+        RestingOrder order = new RestingOrder(sequence.incrementAndGet(), playerId, request.getStockId(),
+                request.getSide(), request.getType(), request.getTriggerPrice().minor(), request.getQuantity(),
+                System.currentTimeMillis());
+
+        // 한도 확인과 추가를 플레이어 키 잠금 안에서 한다 (forgetPlayerOrder가 빈 집합을 지우는 것과 겹치지 않게)
+        ordersByPlayer.compute(playerId, (id, ids) -> {
+            Set<Long> target = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            if (target.size() >= maxOpenOrdersPerPlayer) {
+                throw new ResponseException(Error.TOO_MANY_ORDERS);
+            }
+            target.add(order.id);
+            return target;
+        });
+        orders.put(order.id, order);
+        if (!addToBook(order)) {
+            throw new ResponseException(Error.DATA_NOT_FOUND);
+        }
+
+        return Response.ok(order.toDto());
+    }
+
+    // 로그인한 플레이어의 대기 주문 목록
+    public Response getOpenOrders() {
+        String playerId = sessionHandler.getPlayerId()
+                .orElseThrow(() -> new ResponseException(Error.NOT_AUTHENTICATED));
+
+        List<RestingOrderDto> result = new ArrayList<>();
+        for (Long orderId : ordersByPlayer.getOrDefault(playerId, Set.of())) {
+            RestingOrder order = orders.get(orderId);
+            if (order != null) {
+                result.add(order.toDto());
+            }
+        }
+        result.sort(Comparator.comparing(RestingOrderDto::getOrderId));
+        return Response.ok(result);
+    }
+
+    // 대기 주문 취소 (이미 발동했으면 DATA_NOT_FOUND)
+    public Response cancelOrder(Long orderId) {
+        if (orderId == null) {
+            throw new ParameterException("orderId");
+        }
+
+        String playerId = sessionHandler.getPlayerId()
+                .orElseThrow(() -> new ResponseException(Error.NOT_AUTHENTICATED));
+
+        RestingOrder order = orders.get(orderId);
+        if (order == null || !order.playerId.equals(playerId) || !orders.remove(orderId, order)) {
+            throw new ResponseException(Error.DATA_NOT_FOUND);
+        }
+        forgetPlayerOrder(order);
+
+        TriggerBook book = books.get(order.stockId);
+        if (book != null) {
+            book.remove(order);
+            removeIfEmpty(order.stockId);
+        }
+        return Response.ok(true);
+    }
+
+    // 종목 삭제 시: 더 이상 가격이 움직이지 않으므로 대기 주문을 모두 지운다
+    public void cancelAllForStock(Long stockId) {
+        TriggerBook book = books.remove(stockId);
+        if (book == null) {
+            return;
+        }
+        List<RestingOrder> removed = new ArrayList<>();
+        book.drainAll(removed);
+        for (RestingOrder order : removed) {
+            if (orders.remove(order.id, order)) {
+                forgetPlayerOrder(order);
+            }
+        }
+    }
+
+    // 시뮬레이터 스레드: 주문이 있는 종목만 보고, 넘어선 주문은 플레이어 레인에 넘긴 뒤 바로 돌아간다
+    void onTick() {
+        List<RestingOrder> fired = new ArrayList<>();
+        for (Map.Entry<Long, TriggerBook> entry : books.entrySet()) {
+            long price = marketSimulator.livePrice(entry.getKey());
+            if (price > 0 && entry.getValue().drainCrossed(price, fired)) {
+                removeIfEmpty(entry.getKey());
+            }
+        }
+
+        for (RestingOrder order : fired) {
+            if (!orders.remove(order.id, order)) {
+                continue; // 같은 순간에 취소됐다
+            }
+            forgetPlayerOrder(order);
+            execute(order);
+        }
+    }
+
+    private void execute(RestingOrder order) {
+        StockOrder stockOrder = new StockOrder();
+        stockOrder.setPlayerId(order.playerId);
+        stockOrder.setStockId(order.stockId);
+        stockOrder.setQuantity(order.quantity);
+
+        Money limitPrice = order.type == ConditionalOrder.Type.LIMIT ? Money.ofMinor(order.triggerPrice) : null;
+        playerService.submitTriggeredOrder(order.playerId, stockOrder, order.side == ConditionalOrder.Side.BUY, limitPrice)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof ResponseException e && e.getCode() == Error.LIMIT_NOT_MET.getCode()) {
+                            log.debug("RestingOrderService: order {} price moved past the limit, back to the book", order.id);
+                            requeue(order);
+                            return;
+                        }
+                        log.info("RestingOrderService: order {} ({} {} {}) failed: {}", order.id, order.playerId,
+                                order.side, order.type, cause.getMessage());
+                    } else {
+                        log.debug("RestingOrderService: order {} ({} {} {}) filled", order.id, order.playerId,
+                                order.side, order.type);
+                    }
+                });
+    }
+
+    // 발동 사이에 가격이 되돌아간 지정가 주문을 다시 대기시킨다 (이미 한도 안에 들어 있던 주문이므로 한도는 다시 보지 않는다)
+    private void requeue(RestingOrder order) {
+        ordersByPlayer.compute(order.playerId, (id, ids) -> {
+            Set<Long> target = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            target.add(order.id);
+            return target;
+        });
+        orders.put(order.id, order);
+        if (!addToBook(order)) {
+            log.info("RestingOrderService: order {} dropped, stock {} is no longer traded", order.id, order.stockId);
+        }
+    }
+
+    // 종목 삭제는 untrack 뒤에 cancelAllForStock(books.remove)을 부른다. 같은 키 잠금 안에서 다시 확인하므로
+    // 삭제와 겹쳐도 책은 삭제 전에 만들어져 함께 지워지거나, 여기서 거절되어 지운 종목의 책이 다시 생기지 않는다.
+    // 거절하면 orders/ordersByPlayer에서도 지우고 false
+    private boolean addToBook(RestingOrder order) {
+        boolean[] accepted = new boolean[1];
+        books.compute(order.stockId, (stockId, book) -> {
+            if (marketSimulator.livePrice(stockId) <= 0) {
+                return book;
+            }
+            TriggerBook target = book == null ? new TriggerBook() : book;
+            target.add(order);
+            accepted[0] = true;
+            return target;
+        });
+        if (!accepted[0] && orders.remove(order.id, order)) {
+            forgetPlayerOrder(order);
+        }
+        return accepted[0];
+    }
+
+    private void forgetPlayerOrder(RestingOrder order) {
+        ordersByPlayer.computeIfPresent(order.playerId, (playerId, ids) -> {
+            ids.remove(order.id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // 등록(books.compute)과 같은 키 잠금 안에서 확인하므로 방금 들어온 주문이 있는 책은 지우지 않는다
+    private void removeIfEmpty(Long stockId) {
+        books.computeIfPresent(stockId, (id, book) -> book.isEmpty() ? null : book);
+    }
+
+    private void validateOrder(ConditionalOrder order) {
+        if (order == null) {
+            throw new ParameterException("order");
+        }
+        if (order.getStockId() == null) {
+            throw new ParameterException("stockId");
+        }
+        if (order.getQuantity() == null || order.getQuantity() <= 0) {
+            throw new ParameterException("quantity");
+        }
+        if (order.getSide() == null) {
+            throw new ParameterException("side");
+        }
+        if (order.getType() == null) {
+            throw new ParameterException("type");
+        }
+        if (order.getTriggerPrice() == null || !order.getTriggerPrice().isPositive()) {
+            throw new ParameterException("triggerPrice");
+        }
+    }
+
+    private static final class RestingOrder {
+        private final long id;
+        private final String playerId;
+        private final long stockId;
+        private final ConditionalOrder.Side side;
+        private final ConditionalOrder.Type type;
+        private final long triggerPrice; // 최소 단위
+        private final long quantity;
+        private final long createdAt;
+
+        private RestingOrder(long id, String playerId, long stockId, ConditionalOrder.Side side,
+                ConditionalOrder.Type type, long triggerPrice, long quantity, long createdAt) {
+            this.id = id;
+            this.playerId = playerId;
+            this.stockId = stockId;
+            this.side = side;
+            this.type = type;
+            this.triggerPrice = triggerPrice;
+            this.quantity = quantity;
+            this.createdAt = createdAt;
+        }
+
+        // 매도 지정가와 매수 stop은 가격이 올라와야 발동한다
+        private boolean firesOnRise() {
+            return (side == ConditionalOrder.Side.SELL) == (type == ConditionalOrder.Type.LIMIT);
+        }
+
+        private RestingOrderDto toDto() {
+            RestingOrderDto dto = new RestingOrderDto();
+            dto.setOrderId(id);
+            dto.setPlayerId(playerId);
+            dto.setStockId(stockId);
+            dto.setSide(side);
+            dto.setType(type);
+            dto.setTriggerPrice(Money.ofMinor(triggerPrice));
+            dto.setQuantity(quantity);
+            dto.setCreatedAt(createdAt);
+            return dto;
+        }
+    }
+
+    // 한 종목의 발동 가격 색인. 같은 가격 안에서는 들어온 순서대로 발동한다
+    private static final class TriggerBook {
+        // price <= trigger 이면 발동 (매수 지정가, 매도 stop)
+        private final TreeMap<Long, ArrayDeque<RestingOrder>> onFall = new TreeMap<>();
+        // price >= trigger 이면 발동 (매도 지정가, 매수 stop)
+        private final TreeMap<Long, ArrayDeque<RestingOrder>> onRise = new TreeMap<>();
+
+        private synchronized void add(RestingOrder order) {
+            levels(order).computeIfAbsent(order.triggerPrice, k -> new ArrayDeque<>()).add(order);
+        }
+
+        private synchronized void remove(RestingOrder order) {
+            TreeMap<Long, ArrayDeque<RestingOrder>> levels = levels(order);
+            ArrayDeque<RestingOrder> level = levels.get(order.triggerPrice);
+            if (level != null && level.remove(order) && level.isEmpty()) {
+                levels.remove(order.triggerPrice);
+            }
+        }
+
+        // 넘어선 가격 구간만 떼어 낸다. 하나라도 꺼냈으면 true
+        private synchronized boolean drainCrossed(long price, List<RestingOrder> out) {
+            boolean fell = !onFall.isEmpty() && onFall.lastKey() >= price;
+            boolean rose = !onRise.isEmpty() && onRise.firstKey() <= price;
+            if (fell) {
+                drain(onFall.tailMap(price, true), out);
+            }
+            if (rose) {
+                drain(onRise.headMap(price, true), out);
+            }
+            return fell || rose;
+        }
+
+        private synchronized void drainAll(List<RestingOrder> out) {
+            drain(onFall, out);
+            drain(onRise, out);
+        }
+
+        private synchronized boolean isEmpty() {
+            return onFall.isEmpty() && onRise.isEmpty();
+        }
+
+        private TreeMap<Long, ArrayDeque<RestingOrder>> levels(RestingOrder order) {
+            return order.firesOnRise() ? onRise : onFall;
+        }
+
+        // 부분 맵(view)을 비우면 원래 맵에서도 지워진다
+        private static void drain(NavigableMap<Long, ArrayDeque<RestingOrder>> crossed, List<RestingOrder> out) {
+            for (ArrayDeque<RestingOrder> level : crossed.values()) {
+                out.addAll(level);
+            }
+            crossed.clear();
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.sk.skala.stockapi.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -12,21 +19,30 @@ import com.sk.skala.stockapi.exception.ResponseException;
 import com.sk.skala.stockapi.tools.JsonTool;
 import com.sk.skala.stockapi.tools.JwtTool;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 
 @Component
 public class SessionHandler {
 
+	// 검증을 마친 토큰 캐시 (토큰 해시 -> 세션). 토큰의 exp까지만 유효하다
+	private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+	private final Map<String, VerifiedSession> verifiedTokens = new ConcurrentHashMap<>();
+
 	public PlayerSession getPlayerSession() {
 		ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-		HttpServletRequest request = attributes.getRequest();
+		return getPlayerSession(attributes.getRequest());
+	}
+
+	// 요청을 직접 받는 쪽(WebSocket 핸드셰이크 등)에서 쓴다
+	public PlayerSession getPlayerSession(HttpServletRequest request) {
 		Cookie[] cookies = request.getCookies();
 		if (cookies != null) {
 			for (Cookie cookie : cookies) {
 				if (Constant.JWT_ACCESS_COOKIE.equals(cookie.getName())) {
-					String payload = JwtTool.getValidPayload(cookie.getValue());
-					return JsonTool.toObject(payload, PlayerSession.class);
+					return verify(cookie.getValue());
 				}
 			}
 		}
@@ -58,4 +74,54 @@ public class SessionHandler {
 		return playerSession;
 	}
 
-}
\ No newline at end of file
+	// 캐시에 있으면 서명 검증과 JSON 파싱을 건너뛴다. 만료됐으면 다시 검증해서 만료 예외가 나게 둔다
+	private PlayerSession verify(String token) {
+		String key = hash(token);
+		long now = System.currentTimeMillis();
+
+		VerifiedSession cached = verifiedTokens.get(key);
+		if (cached != null) {
+			if (cached.expiresAt() > now) {
+				return cached.toPlayerSession();
+			}
+			verifiedTokens.remove(key);
+		}
+
+		Claims claims = JwtTool.getValidClaims(token);
+		PlayerSession playerSession = JsonTool.toObject(claims.getAudience(), PlayerSession.class);
+		if (playerSession != null && claims.getExpiration() != null) {
+			cache(key, new VerifiedSession(playerSession.getPlayerId(), playerSession.getPlayerPassword(),
+					claims.getExpiration().getTime()), now);
+		}
+		return playerSession;
+	}
+
+	private void cache(String key, VerifiedSession session, long now) {
+		if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+			verifiedTokens.values().removeIf(s -> s.expiresAt() <= now);
+			if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+				return; // 가득 차 있으면 캐시하지 않고 매번 검증한다
+			}
+		}
+		verifiedTokens.put(key, session);
+	}
+
+	private static String hash(String token) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// 호출자가 고쳐도 캐시에 영향이 없도록 세션 객체는 매번 새로 만든다
+	private record VerifiedSession(String playerId, String playerPassword, long expiresAt) {
+		PlayerSession toPlayerSession() {
+			PlayerSession playerSession = new PlayerSession();
+			playerSession.setPlayerId(playerId);
+			playerSession.setPlayerPassword(playerPassword);
+			return playerSession;
+		}
+	}
+}
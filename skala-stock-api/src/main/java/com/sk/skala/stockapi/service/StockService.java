@@ -3,20 +3,22 @@ package com.sk.skala.stockapi.service;
 import org.springframework.stereotype.Service;
 
 import com.sk.skala.stockapi.config.Error;
+import com.sk.skala.stockapi.data.common.PagedList;
 import com.sk.skala.stockapi.data.common.Response;
 import com.sk.skala.stockapi.data.table.Stock;
 import com.sk.skala.stockapi.exception.ResponseException;
 import com.sk.skala.stockapi.repository.StockRepository;
+import com.sk.skala.stockapi.tools.CursorTool;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 import com.sk.skala.stockapi.exception.ParameterException;
 
@@ -25,7 +27,11 @@ import com.sk.skala.stockapi.exception.ParameterException;
 @RequiredArgsConstructor
 public class StockService {
 
+    private static final String STOCK_CURSOR = "stock";
+
     private final StockRepository stockRepository;
+    private final MarketSimulator marketSimulator;
+    private final RestingOrderService restingOrderService;
 
     //// 전체 주식 목록 조회
     public Response getAllStocks(int offset, int count)
@@ -34,10 +40,30 @@ public class StockService {
 
         Pageable pageable = PageRequest.of(offset, count, Sort.by(Sort.Direction.DESC, "id"));
         Page<Stock> stockPage = stockRepository.findAll(pageable);
+        applyLivePrices(stockPage.getContent());
+
+        return Response.ok(PagedList.ofOffset(stockPage.getContent(), stockPage.getTotalElements(), offset,
+                stockPage.hasNext()));
+    }
 
-        Object pagedList = toPagedList(stockPage, offset, count);
+    // 커서(keyset) 방식 목록 조회: 마지막으로 받은 id 다음부터 읽고 전체 개수는 세지 않는다
+    public Response getStocksByCursor(String cursor, int count)
+    {
+        validatePaging(0, count);
+
+        String lastId = CursorTool.decode(STOCK_CURSOR, cursor);
+        Pageable pageable = PageRequest.of(0, count);
+        Slice<Stock> slice;
+        if (lastId == null) {
+            slice = stockRepository.findAllByOrderByIdDesc(pageable);
+        } else {
+            slice = stockRepository.findByIdLessThanOrderByIdDesc(parseStockCursor(lastId), pageable);
+        }
 
-        return Response.ok(pagedList);
+        List<Stock> stocks = slice.getContent();
+        applyLivePrices(stocks);
+        String next = slice.hasNext() ? CursorTool.encode(STOCK_CURSOR, String.valueOf(stocks.get(stocks.size() - 1).getId())) : null;
+        return Response.ok(PagedList.ofCursor(stocks, next));
     }
 
     // 개별 주식 상세 조회
@@ -46,6 +72,7 @@ public class StockService {
 
         Stock stock = stockRepository.findById(id)
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
+        stock.setStockPrice(marketSimulator.priceOf(stock));
 
         return Response.ok(stock);
     }
@@ -64,6 +91,7 @@ public class StockService {
         stock.setId(0L);
 
         Stock saved = stockRepository.save(stock);
+        marketSimulator.track(saved.getId(), saved.getStockPrice());
         return Response.ok(saved);
     }
 
@@ -89,6 +117,8 @@ public class StockService {
         existing.setStockPrice(stock.getStockPrice());
 
         Stock saved = stockRepository.save(existing);
+        // 관리자가 정한 가격에서 시뮬레이션을 다시 시작한다
+        marketSimulator.track(saved.getId(), saved.getStockPrice());
         return Response.ok(saved);
     }
     
@@ -102,10 +132,20 @@ public class StockService {
                 .orElseThrow(() -> new ResponseException(Error.DATA_NOT_FOUND));
 
         stockRepository.delete(existing);
+        marketSimulator.untrack(id);
+        restingOrderService.cancelAllForStock(id);
         return Response.ok(true);
 
     }
 
+    // 응답 직전에 DB 값 대신 시뮬레이터의 실시간 가격을 넣는다
+    // open-in-view가 꺼져 있어 여기서 받는 엔티티는 이미 분리(detached)된 상태라 DB에 반영되지 않는다
+    private void applyLivePrices(List<Stock> stocks) {
+        for (Stock stock : stocks) {
+            stock.setStockPrice(marketSimulator.priceOf(stock));
+        }
+    }
+
     // Validation methods
     private void validatePaging(int offset, int count) {
         if (offset < 0) {
@@ -129,7 +169,7 @@ public class StockService {
         if (stock.getStockName() == null || stock.getStockName().trim().isEmpty()) {
             throw new ParameterException("stockName");
         }
-        if (stock.getStockPrice() == null || stock.getStockPrice() < 0) {
+        if (stock.getStockPrice() == null || !stock.getStockPrice().isPositive()) {
             throw new ParameterException("stockPrice");
         }
     }
@@ -144,21 +184,17 @@ public class StockService {
         if (stock.getStockName() == null || stock.getStockName().trim().isEmpty()) {
             throw new ParameterException("stockName");
         }
-        if (stock.getStockPrice() == null || stock.getStockPrice() < 0) {
+        if (stock.getStockPrice() == null || !stock.getStockPrice().isPositive()) {
             throw new ParameterException("stockPrice");
         }
     }
 
-    private Object toPagedList(Page<Stock> page, int offset, int count) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", page.getContent());
-        result.put("totalElements", page.getTotalElements());
-        result.put("totalPages", page.getTotalPages());
-        result.put("currentPage", offset);
-        result.put("pageSize", count);
-        result.put("hasNext", page.hasNext());
-        result.put("hasPrevious", page.hasPrevious());
-        return result;
+    private Long parseStockCursor(String lastId) {
+        try {
+            return Long.valueOf(lastId);
+        } catch (NumberFormatException e) {
+            throw new ParameterException(Error.INVALID_PARAMETER.getCode(), Error.INVALID_PARAMETER.getMessage() + ": cursor");
+        }
     }
 
 }
@@ -0,0 +1,35 @@
+package com.sk.skala.stockapi.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.sk.skala.stockapi.config.Error;
+import com.sk.skala.stockapi.exception.ParameterException;
+
+// keyset 페이지네이션용 불투명 토큰: base64url("<kind>:<마지막 키>")
+// kind를 같이 넣어 다른 목록의 토큰을 잘못 넘기면 거부한다
+public class CursorTool {
+
+	public static String encode(String kind, String lastKey) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((kind + ":" + lastKey).getBytes(StandardCharsets.UTF_8));
+	}
+
+	// 빈 토큰은 첫 페이지(null)
+	public static String decode(String kind, String token) {
+		if (StringTool.isEmpty(token)) {
+			return null;
+		}
+		String decoded;
+		try {
+			decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new ParameterException(Error.INVALID_PARAMETER.getCode(), Error.INVALID_PARAMETER.getMessage() + ": cursor");
+		}
+		String prefix = kind + ":";
+		if (!decoded.startsWith(prefix) || decoded.length() == prefix.length()) {
+			throw new ParameterException(Error.INVALID_PARAMETER.getCode(), Error.INVALID_PARAMETER.getMessage() + ": cursor");
+		}
+		return decoded.substring(prefix.length());
+	}
+}
@@ -1,24 +1,42 @@
 package com.sk.skala.stockapi.tools;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sk.skala.stockapi.data.common.ApiLog;
 
 import lombok.extern.slf4j.Slf4j;
 
+// ObjectMapper는 설정을 바꾸지 않는 한 스레드 안전하므로 하나만 만들어 공유한다.
+// 타입별 ObjectReader는 역직렬화기 조회 결과를 들고 있으므로 타입마다 한 번만 만든다.
 @Slf4j
 public class JsonTool {
 
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ObjectWriter WRITER = MAPPER.writer();
+	private static final ObjectReader TREE_READER = MAPPER.reader();
+	private static final ObjectReader MAP_READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+	});
+	private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+	private static final Map<Class<?>, ObjectReader> OBJECT_READERS = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ObjectReader> LIST_READERS = new ConcurrentHashMap<>();
+
 	public static String toString(Object obj) {
 		try {
-			ObjectMapper om = new ObjectMapper();
-			return om.writeValueAsString(obj);
+			return WRITER.writeValueAsString(obj);
 		} catch (JsonProcessingException e) {
 			log.error("JsonTool.toString: {}", e.toString());
 			return new String();
@@ -27,8 +45,7 @@ public class JsonTool {
 
 	public static <T> T toObject(String data, Class<T> c) {
 		try {
-			ObjectMapper om = new ObjectMapper();
-			return om.readValue(data, c);
+			return OBJECT_READERS.computeIfAbsent(c, MAPPER::readerFor).readValue(data);
 		} catch (JsonProcessingException e) {
 			log.error("JsonTool.toObject: {}", e.toString());
 			return null;
@@ -37,9 +54,7 @@ public class JsonTool {
 
 	public static Map<String, Object> toMap(String data) {
 		try {
-			ObjectMapper om = new ObjectMapper();
-			return om.readValue(data, new TypeReference<Map<String, Object>>() {
-			});
+			return MAP_READER.readValue(data);
 		} catch (JsonProcessingException e) {
 			log.error("JsonTool.toMap: {}", e.toString());
 			return null;
@@ -48,8 +63,9 @@ public class JsonTool {
 
 	public static <T> List<T> toList(String data, Class<T> cls) {
 		try {
-			ObjectMapper om = new ObjectMapper();
-			return om.readValue(data, om.getTypeFactory().constructCollectionType(List.class, cls));
+			return LIST_READERS
+					.computeIfAbsent(cls, c -> MAPPER.readerFor(MAPPER.getTypeFactory().constructCollectionType(List.class, c)))
+					.readValue(data);
 		} catch (JsonProcessingException e) {
 			log.error("JsonTool.toList: {}", e.toString());
 			return new ArrayList<T>();
@@ -58,15 +74,48 @@ public class JsonTool {
 
 	public static JsonNode toJsonNode(String data) {
 		try {
-			ObjectMapper om = new ObjectMapper();
-			return om.readTree(data);
-
-		} catch (JsonMappingException e) {
-			log.error("JsonTool.toJsonNode: {}", e.toString());
-
+			return TREE_READER.readTree(data);
 		} catch (JsonProcessingException e) {
 			log.error("JsonTool.toJsonNode: {}", e.toString());
 		}
 		return null;
 	}
+
+	// API 로그 전용: 리플렉션 기반 직렬화기를 거치지 않고 필드를 순서대로 바로 쓴다
+	// 출력 형식은 toString(apiLog)와 같다
+	public static String toLogString(ApiLog apiLog) {
+		StringWriter out = new StringWriter(512);
+		try (JsonGenerator gen = FACTORY.createGenerator(out)) {
+			gen.writeStartObject();
+			gen.writeNumberField("timestamp", apiLog.getTimestamp());
+			gen.writeStringField("remoteAddress", apiLog.getRemoteAddress());
+			gen.writeStringField("apiResult", apiLog.getApiResult());
+			gen.writeStringField("apiHost", apiLog.getApiHost());
+			gen.writeStringField("apiMethod", apiLog.getApiMethod());
+			gen.writeStringField("apiUrl", apiLog.getApiUrl());
+			gen.writeStringField("apiController", apiLog.getApiController());
+			writeStringMap(gen, "customHeaders", apiLog.getCustomHeaders());
+			gen.writeStringField("requestParams", apiLog.getRequestParams());
+			gen.writeStringField("requestBody", apiLog.getRequestBody());
+			gen.writeStringField("responseBody", apiLog.getResponseBody());
+			gen.writeNumberField("elapsedTime", apiLog.getElapsedTime());
+			gen.writeEndObject();
+		} catch (IOException e) {
+			log.error("JsonTool.toLogString: {}", e.toString());
+			return new String();
+		}
+		return out.toString();
+	}
+
+	private static void writeStringMap(JsonGenerator gen, String field, Map<String, String> map) throws IOException {
+		if (map == null) {
+			gen.writeNullField(field);
+			return;
+		}
+		gen.writeObjectFieldStart(field);
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			gen.writeStringField(entry.getKey(), entry.getValue());
+		}
+		gen.writeEndObject();
+	}
 }
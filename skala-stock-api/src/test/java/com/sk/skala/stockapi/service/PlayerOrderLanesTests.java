@@ -0,0 +1,105 @@
+package com.sk.skala.stockapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.sk.skala.stockapi.data.common.Money;
+import com.sk.skala.stockapi.data.dto.StockOrder;
+import com.sk.skala.stockapi.data.table.Player;
+import com.sk.skala.stockapi.data.table.PlayerStock;
+import com.sk.skala.stockapi.data.table.Stock;
+import com.sk.skala.stockapi.repository.PlayerRepository;
+import com.sk.skala.stockapi.repository.PlayerStockRepository;
+import com.sk.skala.stockapi.repository.StockRepository;
+
+// 한 플레이어의 매수/매도를 여러 스레드에서 동시에 보내도 잔액과 수량이 정확히 맞는지 본다.
+// 시뮬레이터를 끄면 체결 가격이 엔티티 가격으로 고정되어 최종 값을 계산할 수 있다
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:lane-test;DB_CLOSE_DELAY=-1",
+		"application.market.enabled=false" })
+class PlayerOrderLanesTests {
+	private static final String PLAYER_ID = "lane-test";
+	private static final long PRICE_MINOR = 100L;
+	private static final long START_MONEY_MINOR = 1_000_000L;
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 25;
+
+	@Autowired
+	private PlayerService playerService;
+	@Autowired
+	private PlayerOrderLanes playerOrderLanes;
+	@Autowired
+	private PlayerRepository playerRepository;
+	@Autowired
+	private PlayerStockRepository playerStockRepository;
+	@Autowired
+	private StockRepository stockRepository;
+
+	// 요청 컨텍스트 없이 로그인된 플레이어를 돌려준다
+	@MockBean
+	private SessionHandler sessionHandler;
+
+	@Test
+	void concurrentBuysAndSellsForOnePlayerAreSerialized() throws Exception {
+		Stock stock = stockRepository.save(new Stock("lane-test-stock", Money.ofMinor(PRICE_MINOR)));
+		Player player = new Player();
+		player.setPlayerId(PLAYER_ID);
+		player.setPlayerPassword("pw");
+		player.setPlayerMoney(Money.ofMinor(START_MONEY_MINOR));
+		playerRepository.save(player);
+		given(sessionHandler.getPlayerId()).willReturn(Optional.of(PLAYER_ID));
+
+		// 스레드마다 2주 매수 후 1주 매도를 반복한다. 자기 매수 뒤에 매도하므로 수량이 모자라는 일은 없다
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < ROUNDS; i++) {
+					playerService.buyPlayerStock(order(stock.getId(), 2));
+					playerService.sellPlayerStock(order(stock.getId(), 1));
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		pool.shutdown();
+
+		long held = (long) THREADS * ROUNDS;
+		Player saved = playerRepository.findByPlayerId(PLAYER_ID).orElseThrow();
+		PlayerStock holding = playerStockRepository.findByPlayerAndStock(saved, stock).orElseThrow();
+		assertThat(holding.getQuantity()).isEqualTo(held);
+		assertThat(saved.getPlayerMoney()).isEqualTo(Money.ofMinor(START_MONEY_MINOR - held * PRICE_MINOR));
+
+		// 레인 정리는 작업 future가 끝난 직후 콜백에서 하므로 잠깐 기다린다
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (playerOrderLanes.activeLanes() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(playerOrderLanes.activeLanes()).isZero();
+	}
+
+	private static StockOrder order(Long stockId, long quantity) {
+		StockOrder order = new StockOrder();
+		order.setStockId(stockId);
+		order.setQuantity(quantity);
+		return order;
+	}
+}